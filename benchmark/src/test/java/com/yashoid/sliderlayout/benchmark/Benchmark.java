@@ -0,0 +1,61 @@
+package com.yashoid.sliderlayout.benchmark;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/*
+ * Times an operation in rounds after a warm up and prints the median and the fastest round in nanoseconds per
+ * operation. Results from the same machine and JVM are comparable before and after a change, absolute numbers are not
+ * comparable to a device.
+ */
+final class Benchmark {
+
+	interface Operation {
+
+		void run(int iteration);
+
+	}
+
+	private static final int WARM_UP_ITERATIONS = 2000;
+	private static final int ROUNDS = 10;
+	private static final int ITERATIONS_PER_ROUND = 1000;
+
+	private Benchmark() {
+
+	}
+
+	static long run(String name, Operation operation) {
+		return run(name, ITERATIONS_PER_ROUND, operation);
+	}
+
+	/*
+	 * Returns the median time of a round in nanoseconds per operation.
+	 */
+	static long run(String name, int iterationsPerRound, Operation operation) {
+		for (int i=0; i<WARM_UP_ITERATIONS; i++) {
+			operation.run(i);
+		}
+
+		long[] rounds = new long[ROUNDS];
+
+		for (int round=0; round<ROUNDS; round++) {
+			long start = System.nanoTime();
+
+			for (int i=0; i<iterationsPerRound; i++) {
+				operation.run(i);
+			}
+
+			rounds[round] = (System.nanoTime() - start)/iterationsPerRound;
+		}
+
+		Arrays.sort(rounds);
+
+		long median = rounds[ROUNDS/2];
+
+		System.out.println(String.format(Locale.US, "%-40s median %,10d ns/op   min %,10d ns/op", name, median,
+				rounds[0]));
+
+		return median;
+	}
+
+}
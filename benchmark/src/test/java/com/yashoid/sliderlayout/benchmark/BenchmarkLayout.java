@@ -0,0 +1,170 @@
+package com.yashoid.sliderlayout.benchmark;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import com.yashoid.sliderlayout.SliderLayout;
+
+/*
+ * A SliderLayout with child trees like a typical screen: a content with a toolbar and a list of rows, and a navigation
+ * slider on each side.
+ */
+class BenchmarkLayout {
+
+	static final int WIDTH = 720;
+	static final int HEIGHT = 1280;
+	static final int SLIDER_WIDTH = 560;
+
+	private static final int CONTENT_ROWS = 12;
+	private static final int SLIDER_ITEMS = 10;
+
+	private static final long FRAME_MILLIS = 16;
+
+	final SliderLayout layout;
+
+	private Context mContext;
+
+	private int mWidthSpec;
+
+	private Canvas mCanvas;
+
+	private long mEventTime;
+
+	BenchmarkLayout(Context context) {
+		mContext = context;
+
+		layout = new SliderLayout(context);
+
+		layout.addView(createContent(), new SliderLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+				ViewGroup.LayoutParams.MATCH_PARENT));
+
+		layout.addView(createSlider(), createSliderParams(SliderLayout.SLIDER_LEFT));
+		layout.addView(createSlider(), createSliderParams(SliderLayout.SLIDER_RIGHT));
+
+		mWidthSpec = MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY);
+
+		mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+
+		mEventTime = SystemClock.uptimeMillis();
+
+		measureAndLayout(HEIGHT);
+	}
+
+	void measureAndLayout(int height) {
+		layout.measure(mWidthSpec, MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY));
+		layout.layout(0, 0, WIDTH, height);
+	}
+
+	void draw() {
+		layout.draw(mCanvas);
+	}
+
+	/*
+	 * Drags from the left edge to the given x and back in steps of one frame.
+	 */
+	void dragLeftSlider(int toX, int steps) {
+		long downTime = mEventTime;
+		float y = HEIGHT/2;
+
+		dispatch(downTime, MotionEvent.ACTION_DOWN, 5, y);
+
+		for (int i=1; i<=steps; i++) {
+			dispatch(downTime, MotionEvent.ACTION_MOVE, 5 + (toX - 5)*i/steps, y);
+		}
+
+		for (int i=steps - 1; i>=0; i--) {
+			dispatch(downTime, MotionEvent.ACTION_MOVE, 5 + (toX - 5)*i/steps, y);
+		}
+
+		dispatch(downTime, MotionEvent.ACTION_UP, 5, y);
+
+		layout.closeSlider(SliderLayout.SLIDER_LEFT, false);
+	}
+
+	/*
+	 * Drags the left slider open to the given x and leaves the touch down.
+	 */
+	void holdLeftSliderAt(int x) {
+		long downTime = mEventTime;
+		float y = HEIGHT/2;
+
+		dispatch(downTime, MotionEvent.ACTION_DOWN, 5, y);
+		dispatch(downTime, MotionEvent.ACTION_MOVE, x/2, y);
+		dispatch(downTime, MotionEvent.ACTION_MOVE, x, y);
+	}
+
+	private void dispatch(long downTime, int action, float x, float y) {
+		mEventTime += FRAME_MILLIS;
+
+		MotionEvent event = MotionEvent.obtain(downTime, mEventTime, action, x, y, 0);
+
+		layout.dispatchTouchEvent(event);
+
+		event.recycle();
+	}
+
+	private View createContent() {
+		LinearLayout content = new LinearLayout(mContext);
+		content.setOrientation(LinearLayout.VERTICAL);
+
+		FrameLayout toolbar = new FrameLayout(mContext);
+
+		TextView title = new TextView(mContext);
+		title.setText("Title");
+		toolbar.addView(title);
+
+		content.addView(toolbar, new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, 112));
+
+		for (int i=0; i<CONTENT_ROWS; i++) {
+			content.addView(createRow("Row " + i), new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+					0, 1));
+		}
+
+		return content;
+	}
+
+	private View createSlider() {
+		LinearLayout slider = new LinearLayout(mContext);
+		slider.setOrientation(LinearLayout.VERTICAL);
+		slider.setBackgroundColor(0xffffffff);
+
+		for (int i=0; i<SLIDER_ITEMS; i++) {
+			slider.addView(createRow("Item " + i));
+		}
+
+		return slider;
+	}
+
+	private View createRow(String text) {
+		LinearLayout row = new LinearLayout(mContext);
+		row.setOrientation(LinearLayout.HORIZONTAL);
+
+		row.addView(new ImageView(mContext), new LinearLayout.LayoutParams(96, 96));
+
+		TextView label = new TextView(mContext);
+		label.setText(text);
+
+		row.addView(label, new LinearLayout.LayoutParams(0, ViewGroup.LayoutParams.WRAP_CONTENT, 1));
+
+		return row;
+	}
+
+	private static SliderLayout.LayoutParams createSliderParams(int gravity) {
+		SliderLayout.LayoutParams params = new SliderLayout.LayoutParams(SLIDER_WIDTH,
+				ViewGroup.LayoutParams.MATCH_PARENT);
+		params.gravity = gravity;
+
+		return params;
+	}
+
+}
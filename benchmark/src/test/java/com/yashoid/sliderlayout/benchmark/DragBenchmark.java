@@ -0,0 +1,86 @@
+package com.yashoid.sliderlayout.benchmark;
+
+import com.yashoid.sliderlayout.SliderLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/*
+ * Each operation is a whole gesture of a down, 2*DRAG_STEPS moves and an up dispatched through dispatchTouchEvent so
+ * both onInterceptTouchEvent and onTouchEvent are on the path.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DragBenchmark {
+
+	private static final int DRAG_STEPS = 20;
+
+	private static final int ITERATIONS_PER_ROUND = 100;
+
+	private BenchmarkLayout mLayout;
+
+	@Before
+	public void setUp() {
+		mLayout = new BenchmarkLayout(RuntimeEnvironment.application);
+	}
+
+	@Test
+	public void dragOffsetMode() {
+		mLayout.layout.setSlideMode(SliderLayout.SLIDE_MODE_OFFSET);
+
+		runDrag("dragOffsetMode");
+	}
+
+	@Test
+	public void dragLayoutMode() {
+		mLayout.layout.setSlideMode(SliderLayout.SLIDE_MODE_LAYOUT);
+
+		runDrag("dragLayoutMode");
+	}
+
+	@Test
+	public void dragWithListeners() {
+		for (int i=0; i<4; i++) {
+			mLayout.layout.addSliderListener(new EmptySliderListener());
+		}
+
+		runDrag("dragWithListeners");
+	}
+
+	private void runDrag(String name) {
+		Benchmark.run(name, ITERATIONS_PER_ROUND, new Benchmark.Operation() {
+
+			@Override
+			public void run(int iteration) {
+				mLayout.dragLeftSlider(BenchmarkLayout.SLIDER_WIDTH, DRAG_STEPS);
+
+				// Layout mode requests a layout on every move, do what the next traversal would.
+				if (mLayout.layout.isLayoutRequested()) {
+					mLayout.measureAndLayout(BenchmarkLayout.HEIGHT);
+				}
+			}
+
+		});
+	}
+
+	private static class EmptySliderListener implements SliderLayout.SliderListener {
+
+		@Override
+		public void onStateChanged(int state, int slider) { }
+
+		@Override
+		public void onScrollChanged(float ratio, int slider) { }
+
+		@Override
+		public void onSliderOpened(int slider) { }
+
+		@Override
+		public void onSliderClosed(int slider) { }
+
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.yashoid.sliderlayout.benchmark;
+
+import com.yashoid.sliderlayout.SliderLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/*
+ * Draws with the left slider held half open, which is where darkening does the most work. Robolectric's shadow Canvas
+ * does not rasterize, so the time per draw is the layout's dispatch work plus shadow bookkeeping. It is not a rendering
+ * cost and says nothing about the fill rate or overdraw of darkening. Compare those with GPU profiling on a device.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DrawBenchmark {
+
+	private BenchmarkLayout mLayout;
+
+	@Before
+	public void setUp() {
+		mLayout = new BenchmarkLayout(RuntimeEnvironment.application);
+	}
+
+	@Test
+	public void drawWithDarkening() {
+		mLayout.layout.setSlidersDarken(true);
+		mLayout.layout.setDarkeningMode(SliderLayout.DARKENING_MODE_DRAW);
+
+		runDraw("drawWithDarkening");
+	}
+
+	@Test
+	public void drawWithoutDarkening() {
+		mLayout.layout.setSlidersDarken(false);
+
+		runDraw("drawWithoutDarkening");
+	}
+
+	@Test
+	public void drawSliderOver() {
+		mLayout.layout.setSlidersDarken(true);
+		mLayout.layout.setSlidersAreOver(true);
+
+		runDraw("drawSliderOver");
+	}
+
+	private void runDraw(String name) {
+		mLayout.holdLeftSliderAt(BenchmarkLayout.SLIDER_WIDTH/2);
+
+		Benchmark.run(name, new Benchmark.Operation() {
+
+			@Override
+			public void run(int iteration) {
+				mLayout.draw();
+			}
+
+		});
+	}
+
+}
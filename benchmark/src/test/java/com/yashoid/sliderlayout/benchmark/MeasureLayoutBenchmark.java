@@ -0,0 +1,47 @@
+package com.yashoid.sliderlayout.benchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class MeasureLayoutBenchmark {
+
+	private BenchmarkLayout mLayout;
+
+	@Before
+	public void setUp() {
+		mLayout = new BenchmarkLayout(RuntimeEnvironment.application);
+	}
+
+	@Test
+	public void measureAndLayoutUnchanged() {
+		Benchmark.run("measureAndLayoutUnchanged", new Benchmark.Operation() {
+
+			@Override
+			public void run(int iteration) {
+				mLayout.layout.requestLayout();
+				mLayout.measureAndLayout(BenchmarkLayout.HEIGHT);
+			}
+
+		});
+	}
+
+	@Test
+	public void measureAndLayoutResized() {
+		Benchmark.run("measureAndLayoutResized", new Benchmark.Operation() {
+
+			@Override
+			public void run(int iteration) {
+				// Alternates like a keyboard showing and hiding.
+				mLayout.measureAndLayout(iteration%2==0?BenchmarkLayout.HEIGHT:BenchmarkLayout.HEIGHT/2);
+			}
+
+		});
+	}
+
+}
@@ -0,0 +1,99 @@
+package com.yashoid.sliderlayout;
+
+import android.animation.Animator;
+import android.animation.Animator.AnimatorListener;
+import android.animation.ValueAnimator;
+import android.animation.ValueAnimator.AnimatorUpdateListener;
+import android.view.animation.LinearInterpolator;
+
+/*
+ * A single reusable frame clock for flies. Everything is allocated once so starting, retargeting and cancelling a fly
+ * does not allocate. It only reports the time passed since the start, the motion itself is computed by SliderEngine.
+ */
+class FlyAnimator implements AnimatorUpdateListener, AnimatorListener {
+
+	interface Callback {
+
+		void onFlyUpdate(long time);
+
+		void onFlyEnd(long time);
+
+	}
+
+	private Callback mCallback;
+
+	private ValueAnimator mAnimator;
+
+	private long mDuration;
+
+	private boolean mRunning = false;
+	private boolean mCanceled = false;
+
+	FlyAnimator(Callback callback) {
+		mCallback = callback;
+
+		mAnimator = new ValueAnimator();
+		mAnimator.setFloatValues(0, 1);
+		mAnimator.setInterpolator(new LinearInterpolator());
+		mAnimator.addUpdateListener(this);
+		mAnimator.addListener(this);
+	}
+
+	/*
+	 * Restarts the clock if already running.
+	 */
+	void start(long duration) {
+		cancel();
+
+		mDuration = duration;
+
+		mRunning = true;
+		mCanceled = false;
+
+		mAnimator.setDuration(duration);
+		mAnimator.start();
+	}
+
+	void cancel() {
+		if (mRunning) {
+			mRunning = false;
+			mCanceled = true;
+
+			mAnimator.cancel();
+		}
+	}
+
+	boolean isRunning() {
+		return mRunning;
+	}
+
+	@Override
+	public void onAnimationUpdate(ValueAnimator animation) {
+		if (mCanceled) {
+			return;
+		}
+
+		mCallback.onFlyUpdate((long) (animation.getAnimatedFraction()*mDuration));
+	}
+
+	@Override
+	public void onAnimationStart(Animator animation) { }
+
+	@Override
+	public void onAnimationRepeat(Animator animation) { }
+
+	@Override
+	public void onAnimationEnd(Animator animation) {
+		if (mCanceled) {
+			return;
+		}
+
+		mRunning = false;
+
+		mCallback.onFlyEnd(mDuration);
+	}
+
+	@Override
+	public void onAnimationCancel(Animator animation) { }
+
+}
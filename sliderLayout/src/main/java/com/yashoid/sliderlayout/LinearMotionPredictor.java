@@ -0,0 +1,13 @@
+package com.yashoid.sliderlayout;
+
+/**
+ * Extrapolates the touch position along its current velocity. Set by the predictMotion attribute.
+ */
+public class LinearMotionPredictor implements SliderLayout.MotionPredictor {
+
+	@Override
+	public float predict(float position, float velocity, long latency) {
+		return position + velocity*latency/1000f;
+	}
+
+}
@@ -0,0 +1,287 @@
+package com.yashoid.sliderlayout;
+
+/*
+ * A damped spring that settles a position to a target starting from a release velocity. The position is computed
+ * analytically from the time passed since the start, so the outcome only depends on the frame times that are fed to
+ * it and can be tested without a real frame clock.
+ *
+ * Positions are in pixels, velocities in pixels per second and times in milliseconds.
+ */
+class SettleSpring {
+
+	static final float DEFAULT_STIFFNESS = 800;
+	static final float DEFAULT_DAMPING_RATIO = 1;
+
+	private static final double POSITION_THRESHOLD = 0.5;
+	private static final double VELOCITY_THRESHOLD = 20;
+
+	private static final long MAXIMUM_DURATION = 2000;
+
+	private float mStiffness;
+	private float mDampingRatio;
+
+	private double mNaturalFrequency;
+
+	private double mStartDisplacement;
+	private double mStartVelocity;
+	private float mTarget;
+
+	private long mDuration;
+
+	SettleSpring() {
+		setSpring(DEFAULT_STIFFNESS, DEFAULT_DAMPING_RATIO);
+	}
+
+	void setSpring(float stiffness, float dampingRatio) {
+		if (stiffness<=0) {
+			throw new IllegalArgumentException("Spring stiffness must be positive.");
+		}
+
+		if (dampingRatio<=0) {
+			throw new IllegalArgumentException("Spring damping ratio must be positive.");
+		}
+
+		mStiffness = stiffness;
+		mDampingRatio = dampingRatio;
+
+		mNaturalFrequency = Math.sqrt(stiffness);
+	}
+
+	float getStiffness() {
+		return mStiffness;
+	}
+
+	float getDampingRatio() {
+		return mDampingRatio;
+	}
+
+	/*
+	 * Returns the time it takes to settle.
+	 */
+	long start(float position, float velocity, float target) {
+		mStartDisplacement = position - target;
+		mStartVelocity = velocity;
+		mTarget = target;
+
+		mDuration = computeDuration();
+
+		return mDuration;
+	}
+
+	long getDuration() {
+		return mDuration;
+	}
+
+	float getTarget() {
+		return mTarget;
+	}
+
+	float getPosition(long time) {
+		if (time>=mDuration) {
+			return mTarget;
+		}
+
+		return (float) (mTarget + displacement(time/1000d));
+	}
+
+	float getVelocity(long time) {
+		if (time>=mDuration) {
+			return 0;
+		}
+
+		return (float) velocity(time/1000d);
+	}
+
+	/*
+	 * The spring is settled when it is close enough to the target and slow enough, or when it first passes the target.
+	 * Sliders can not move past their targets so overshooting is cut at the target.
+	 *
+	 * This runs at every fly start so time is not stepped through. The first pass of the target is solved in closed
+	 * form and the envelope of the motion gives a time by which it is surely settled. The earlier of the two bounds a
+	 * bisection for the first settled millisecond.
+	 */
+	private long computeDuration() {
+		if (mStartDisplacement==0 && mStartVelocity==0) {
+			return 0;
+		}
+
+		long upper = Math.min(Math.min(computeCrossingTime(), computeEnvelopeSettleTime()), MAXIMUM_DURATION);
+		long lower = 0;
+
+		while (upper - lower>1) {
+			long time = (lower + upper)/2;
+
+			if (isSettled(time/1000d)) {
+				upper = time;
+			}
+			else {
+				lower = time;
+			}
+		}
+
+		return upper;
+	}
+
+	private boolean isSettled(double t) {
+		return Math.abs(displacement(t))<POSITION_THRESHOLD && Math.abs(velocity(t))<VELOCITY_THRESHOLD;
+	}
+
+	/*
+	 * Returns the first millisecond at which the spring is past the target, or Long.MAX_VALUE if it never passes it.
+	 */
+	private long computeCrossingTime() {
+		double x0 = mStartDisplacement;
+		double v0 = mStartVelocity;
+		double w = mNaturalFrequency;
+		double z = mDampingRatio;
+
+		double t = 0;
+
+		if (z<1) {
+			double wd = w*Math.sqrt(1 - z*z);
+			double b = (v0 + z*w*x0)/wd;
+
+			// The displacement is a decaying cos(wd*t - atan2(b, x0)) which is zero a quarter turn past that phase.
+			double phase = Math.atan2(b, x0) + Math.PI/2;
+
+			if (phase>Math.PI) {
+				phase -= Math.PI;
+			}
+			else if (phase<=0) {
+				phase += Math.PI;
+			}
+
+			t = phase/wd;
+		}
+		else if (z==1) {
+			double c = v0 + w*x0;
+
+			if (c!=0) {
+				t = -x0/c;
+			}
+		}
+		else {
+			double root = w*Math.sqrt(z*z - 1);
+			double r1 = -z*w + root;
+			double r2 = -z*w - root;
+			double c2 = (v0 - r1*x0)/(r2 - r1);
+			double c1 = x0 - c2;
+
+			double ratio = -c2/c1;
+
+			if (ratio>1) {
+				t = Math.log(ratio)/(r1 - r2);
+			}
+		}
+
+		if (t<=0) {
+			return Long.MAX_VALUE;
+		}
+
+		return (long) Math.floor(t*1000) + 1;
+	}
+
+	/*
+	 * Returns a time by which the envelope of the motion, and so the motion itself, is within the settle thresholds.
+	 */
+	private long computeEnvelopeSettleTime() {
+		double x0 = mStartDisplacement;
+		double v0 = mStartVelocity;
+		double w = mNaturalFrequency;
+		double z = mDampingRatio;
+
+		double decay;
+		double amplitude;
+		double velocityAmplitude;
+
+		if (z<1) {
+			double wd = w*Math.sqrt(1 - z*z);
+			double a = z*w;
+			double b = (v0 + a*x0)/wd;
+
+			decay = a;
+			amplitude = Math.sqrt(x0*x0 + b*b);
+			velocityAmplitude = w*amplitude;
+		}
+		else if (z==1) {
+			double c = v0 + w*x0;
+
+			// t*exp(-w*t) is at most 2/(w*e)*exp(-w*t/2).
+			decay = w/2;
+			amplitude = Math.abs(x0) + 2*Math.abs(c)/(w*Math.E);
+			velocityAmplitude = Math.abs(c - w*x0) + 2*Math.abs(c)/Math.E;
+		}
+		else {
+			double root = w*Math.sqrt(z*z - 1);
+			double r1 = -z*w + root;
+			double r2 = -z*w - root;
+			double c2 = (v0 - r1*x0)/(r2 - r1);
+			double c1 = x0 - c2;
+
+			decay = -r1;
+			amplitude = Math.abs(c1) + Math.abs(c2);
+			velocityAmplitude = Math.abs(c1*r1) + Math.abs(c2*r2);
+		}
+
+		double t = Math.max(Math.log(amplitude/POSITION_THRESHOLD), Math.log(velocityAmplitude/VELOCITY_THRESHOLD))/decay;
+
+		return Math.max(1, (long) Math.ceil(t*1000));
+	}
+
+	private double displacement(double t) {
+		double x0 = mStartDisplacement;
+		double v0 = mStartVelocity;
+		double w = mNaturalFrequency;
+		double z = mDampingRatio;
+
+		if (z<1) {
+			double wd = w*Math.sqrt(1 - z*z);
+			double a = z*w;
+			double b = (v0 + a*x0)/wd;
+
+			return Math.exp(-a*t)*(x0*Math.cos(wd*t) + b*Math.sin(wd*t));
+		}
+		else if (z==1) {
+			return Math.exp(-w*t)*(x0 + (v0 + w*x0)*t);
+		}
+		else {
+			double root = w*Math.sqrt(z*z - 1);
+			double r1 = -z*w + root;
+			double r2 = -z*w - root;
+			double c2 = (v0 - r1*x0)/(r2 - r1);
+			double c1 = x0 - c2;
+
+			return c1*Math.exp(r1*t) + c2*Math.exp(r2*t);
+		}
+	}
+
+	private double velocity(double t) {
+		double x0 = mStartDisplacement;
+		double v0 = mStartVelocity;
+		double w = mNaturalFrequency;
+		double z = mDampingRatio;
+
+		if (z<1) {
+			double wd = w*Math.sqrt(1 - z*z);
+			double a = z*w;
+			double b = (v0 + a*x0)/wd;
+
+			return Math.exp(-a*t)*((b*wd - a*x0)*Math.cos(wd*t) - (a*b + x0*wd)*Math.sin(wd*t));
+		}
+		else if (z==1) {
+			double b = v0 + w*x0;
+
+			return Math.exp(-w*t)*(b - w*(x0 + b*t));
+		}
+		else {
+			double root = w*Math.sqrt(z*z - 1);
+			double r1 = -z*w + root;
+			double r2 = -z*w - root;
+			double c2 = (v0 - r1*x0)/(r2 - r1);
+			double c1 = x0 - c2;
+
+			return c1*r1*Math.exp(r1*t) + c2*r2*Math.exp(r2*t);
+		}
+	}
+
+}
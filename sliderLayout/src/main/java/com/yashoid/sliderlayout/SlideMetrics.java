@@ -0,0 +1,80 @@
+package com.yashoid.sliderlayout;
+
+/**
+ * Frame timing of a single slide, from the first movement or fly start until the layout is idle again. An instance is
+ * reused for every report so it is only valid during {@link SliderLayout.SlideMetricsListener#onSlideMetrics}.
+ */
+public class SlideMetrics {
+
+	int mSlider;
+
+	long mFrameBudgetNanos;
+
+	int mFramesRendered;
+	int mFramesOverBudget;
+	long mWorstFrameNanos;
+
+	long mTouchToFirstMoveNanos;
+	long mFlyDurationNanos;
+	long mDurationNanos;
+
+	SlideMetrics() {
+
+	}
+
+	void reset() {
+		mSlider = SliderLayout.SLIDER_NO_SLIDER;
+		mFramesRendered = 0;
+		mFramesOverBudget = 0;
+		mWorstFrameNanos = 0;
+		mTouchToFirstMoveNanos = -1;
+		mFlyDurationNanos = 0;
+		mDurationNanos = 0;
+	}
+
+	public int getSlider() {
+		return mSlider;
+	}
+
+	/**
+	 * @return Duration of a display frame the frames are compared to.
+	 */
+	public long getFrameBudgetNanos() {
+		return mFrameBudgetNanos;
+	}
+
+	public int getFramesRendered() {
+		return mFramesRendered;
+	}
+
+	/**
+	 * @return Number of frames that took longer than one and a half frame budgets, which means at least one display
+	 * refresh was missed.
+	 */
+	public int getFramesOverBudget() {
+		return mFramesOverBudget;
+	}
+
+	public long getWorstFrameNanos() {
+		return mWorstFrameNanos;
+	}
+
+	/**
+	 * @return Time from the ACTION_DOWN to the first slide movement, or -1 if the slide was not started by touch.
+	 */
+	public long getTouchToFirstMoveNanos() {
+		return mTouchToFirstMoveNanos;
+	}
+
+	/**
+	 * @return Time spent flying, or 0 if the slide ended without a fly.
+	 */
+	public long getFlyDurationNanos() {
+		return mFlyDurationNanos;
+	}
+
+	public long getDurationNanos() {
+		return mDurationNanos;
+	}
+
+}
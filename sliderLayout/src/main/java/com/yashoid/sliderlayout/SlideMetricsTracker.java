@@ -0,0 +1,144 @@
+package com.yashoid.sliderlayout;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.WindowManager;
+
+/*
+ * Collects SlideMetrics from Choreographer frame callbacks while the layout is scrolling or flying. Only created when a
+ * SlideMetricsListener is set.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class SlideMetricsTracker implements Choreographer.FrameCallback {
+
+	private static final long NANOS_PER_MILLI = 1000000;
+
+	private SliderLayout.SlideMetricsListener mListener;
+
+	private SlideMetrics mMetrics = new SlideMetrics();
+
+	private long mOverBudgetThreshold;
+
+	private long mTouchDownTime = -1;
+
+	private boolean mIsTracking = false;
+	private long mStartTime;
+	private long mFlyStartTime;
+	private long mLastFrameTime;
+
+	SlideMetricsTracker(Context context, SliderLayout.SlideMetricsListener listener) {
+		mListener = listener;
+
+		WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+		float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+
+		if (refreshRate<=0) {
+			refreshRate = 60;
+		}
+
+		mMetrics.mFrameBudgetNanos = (long) (1000000000L/refreshRate);
+		mOverBudgetThreshold = mMetrics.mFrameBudgetNanos*3/2;
+	}
+
+	void onTouchDown(long eventTime) {
+		if (!mIsTracking) {
+			mTouchDownTime = eventTime;
+		}
+	}
+
+	void onSlideStarted(int slider, boolean byTouch) {
+		if (mIsTracking) {
+			return;
+		}
+
+		mIsTracking = true;
+
+		mMetrics.reset();
+		mMetrics.mSlider = slider;
+
+		if (byTouch && mTouchDownTime>=0) {
+			mMetrics.mTouchToFirstMoveNanos = (SystemClock.uptimeMillis() - mTouchDownTime)*NANOS_PER_MILLI;
+		}
+
+		mTouchDownTime = -1;
+
+		mStartTime = System.nanoTime();
+		mFlyStartTime = 0;
+		mLastFrameTime = 0;
+
+		Choreographer.getInstance().postFrameCallback(this);
+	}
+
+	void onFlyStarted(int slider) {
+		onSlideStarted(slider, false);
+
+		if (mFlyStartTime==0) {
+			mFlyStartTime = System.nanoTime();
+		}
+	}
+
+	void onFlyStopped() {
+		if (mFlyStartTime!=0) {
+			mMetrics.mFlyDurationNanos += System.nanoTime() - mFlyStartTime;
+			mFlyStartTime = 0;
+		}
+	}
+
+	void onSlideEnded() {
+		if (!mIsTracking) {
+			mTouchDownTime = -1;
+			return;
+		}
+
+		mIsTracking = false;
+
+		Choreographer.getInstance().removeFrameCallback(this);
+
+		long now = System.nanoTime();
+
+		onFlyStopped();
+
+		mMetrics.mDurationNanos = now - mStartTime;
+
+		mListener.onSlideMetrics(mMetrics);
+	}
+
+	void cancel() {
+		if (mIsTracking) {
+			mIsTracking = false;
+
+			Choreographer.getInstance().removeFrameCallback(this);
+		}
+
+		mTouchDownTime = -1;
+	}
+
+	@Override
+	public void doFrame(long frameTimeNanos) {
+		if (!mIsTracking) {
+			return;
+		}
+
+		if (mLastFrameTime!=0) {
+			long frameTime = frameTimeNanos - mLastFrameTime;
+
+			mMetrics.mFramesRendered++;
+
+			if (frameTime>mOverBudgetThreshold) {
+				mMetrics.mFramesOverBudget++;
+			}
+
+			if (frameTime>mMetrics.mWorstFrameNanos) {
+				mMetrics.mWorstFrameNanos = frameTime;
+			}
+		}
+
+		mLastFrameTime = frameTimeNanos;
+
+		Choreographer.getInstance().postFrameCallback(this);
+	}
+
+}
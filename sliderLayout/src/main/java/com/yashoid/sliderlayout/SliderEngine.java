@@ -0,0 +1,810 @@
+package com.yashoid.sliderlayout;
+
+import java.util.Arrays;
+
+/**
+ * The slide state machine of {@link SliderLayout} without any framework types. It takes touch input, programmatic
+ * open and close requests and fly frame times, and reports the slide amount and state changes to its
+ * {@link Callback}. Nothing is allocated after construction.
+ * <p>
+ * The slide amount is the offset of the content in pixels, horizontal for the left and right sliders and vertical for
+ * the top and bottom sliders. It is positive while the left or top slider is open and negative while the right or
+ * bottom slider is open.
+ * <p>
+ * A slider rests at one of its detents. Detent 0 is closed and the last detent is fully open. Detents in between, like
+ * a peek, are set with {@link #setDetents(int, float[])}.
+ */
+public class SliderEngine {
+
+	public static final int STATE_IDLE = 0;
+	public static final int STATE_SCROLLING = 1;
+	public static final int STATE_FLYING = 2;
+
+	public static final int NO_SLIDER = 0;
+	public static final int LEFT = 3;
+	public static final int RIGHT = 5;
+	public static final int TOP = 48;
+	public static final int BOTTOM = 80;
+
+	/* Sliders are kept in tables indexed by edge. */
+	static final int EDGE_LEFT = 0;
+	static final int EDGE_TOP = 1;
+	static final int EDGE_RIGHT = 2;
+	static final int EDGE_BOTTOM = 3;
+	static final int EDGE_COUNT = 4;
+
+	/**
+	 * Slider size of an edge that has no slider.
+	 */
+	public static final int NO_SIZE = -1;
+
+	public interface Callback {
+
+		void onStateChanged(int state, int slider);
+
+		void onSlideAmountChanged(float slideAmount);
+
+		void onScrollChanged(float ratio, int slider);
+
+		void onSliderOpened(int slider);
+
+		void onSliderClosed(int slider);
+
+		/**
+		 * The slider has come to rest at another detent.
+		 */
+		void onDetentChanged(int detent, int slider);
+
+		/**
+		 * A fly has started or has been retargeted. {@link SliderEngine#onFlyFrame(long)} should be called with the time
+		 * passed since this call until the duration is reached.
+		 */
+		void onFlyStarted(long duration);
+
+		void onFlyCanceled();
+
+	}
+
+	private Callback mCallback;
+
+	private int mWidth = 0;
+	private int mHeight = 0;
+	private float mSensitiveAreaWidth = 0;
+
+	private int[] mSizes = { NO_SIZE, NO_SIZE, NO_SIZE, NO_SIZE };
+
+	/*
+	 * Open distances of the detents by edge, from closed to fully open without repeats. Updated in place when the size
+	 * changes so only the first mDetentCounts entries are in use.
+	 */
+	private float[][] mDetentOffsets = new float[EDGE_COUNT][];
+	private int[] mDetentCounts = new int[EDGE_COUNT];
+	private float[][] mIntermediateDetents = new float[EDGE_COUNT][];
+	private int mProvidedSliders = NO_SLIDER;
+
+	private int mLockedSliders = NO_SLIDER;
+
+	private boolean mCatchesFlyingSliders = false;
+
+	private int mState = STATE_IDLE;
+	private int mOpenSlider = NO_SLIDER;
+	private int mSlidingSlider = NO_SLIDER;
+	private int mDetent = 0;
+	private int mTargetDetent = 0;
+
+	private float mSlideAmount = 0;
+
+	/* This to prevent the cases in which a move is received without a prior down, which would make a jump. */
+	private boolean mIsTouchDown = false;
+
+	private SettleSpring mSpring;
+	private SettleSpring mEstimationSpring;
+
+	private boolean mIsFlyingOpen = false;
+	private long mFlyDuration = 0;
+	private float mFlyVelocity = 0;
+
+	public SliderEngine(Callback callback) {
+		mCallback = callback;
+
+		for (int edge=0; edge<EDGE_COUNT; edge++) {
+			mIntermediateDetents[edge] = new float[0];
+			mDetentOffsets[edge] = new float[2];
+
+			updateDetentOffsets(edge);
+		}
+
+		mSpring = new SettleSpring();
+		mEstimationSpring = new SettleSpring();
+	}
+
+	public void setWidth(int width) {
+		mWidth = width;
+	}
+
+	public int getWidth() {
+		return mWidth;
+	}
+
+	public void setHeight(int height) {
+		mHeight = height;
+	}
+
+	public int getHeight() {
+		return mHeight;
+	}
+
+	public void setSensitiveAreaWidth(float sensitiveAreaWidth) {
+		mSensitiveAreaWidth = sensitiveAreaWidth;
+	}
+
+	public float getSensitiveAreaWidth() {
+		return mSensitiveAreaWidth;
+	}
+
+	/**
+	 * @param size Width of a left or right slider or height of a top or bottom slider in pixels, or {@link #NO_SIZE} if
+	 * the edge has no slider.
+	 */
+	public void setSliderSize(int slider, int size) {
+		int edge = getEdgeIndex(slider);
+
+		if (edge!=-1) {
+			mSizes[edge] = size;
+
+			updateDetentOffsets(edge);
+		}
+	}
+
+	public int getSliderSize(int slider) {
+		int edge = getEdgeIndex(slider);
+
+		return edge==-1?NO_SIZE:mSizes[edge];
+	}
+
+	/**
+	 * @return Index of the slider's edge in {@link #EDGE_LEFT} to {@link #EDGE_BOTTOM} order, or -1 for anything else.
+	 */
+	static int getEdgeIndex(int slider) {
+		switch (slider) {
+		case LEFT:
+			return EDGE_LEFT;
+		case TOP:
+			return EDGE_TOP;
+		case RIGHT:
+			return EDGE_RIGHT;
+		case BOTTOM:
+			return EDGE_BOTTOM;
+		default:
+			return -1;
+		}
+	}
+
+	/**
+	 * @return Whether the slider slides vertically.
+	 */
+	public static boolean isVertical(int slider) {
+		return slider==TOP || slider==BOTTOM;
+	}
+
+	/*
+	 * Left and top sliders open with a positive slide amount.
+	 */
+	private static boolean opensPositive(int slider) {
+		return slider==LEFT || slider==TOP;
+	}
+
+	/**
+	 * @param detents Open distances in pixels between closed and fully open that the slider can rest at. Distances
+	 * beyond the slider size are cut to it.
+	 * @throws IllegalStateException If the slider is not closed, since its detent would index the old detents.
+	 */
+	public void setDetents(int slider, float[] detents) {
+		int edge = getEdgeIndex(slider);
+
+		if (edge==-1) {
+			return;
+		}
+
+		if (mSlidingSlider==slider || mOpenSlider==slider) {
+			throw new IllegalStateException("Detents can only be changed while the slider is closed.");
+		}
+
+		float[] intermediateDetents = detents.clone();
+		Arrays.sort(intermediateDetents);
+
+		mIntermediateDetents[edge] = intermediateDetents;
+		mDetentOffsets[edge] = new float[intermediateDetents.length + 2];
+
+		updateDetentOffsets(edge);
+	}
+
+	/**
+	 * @return Number of detents of the slider including closed and fully open.
+	 */
+	public int getDetentCount(int slider) {
+		int edge = getEdgeIndex(slider);
+
+		return edge==-1?0:mDetentCounts[edge];
+	}
+
+	/**
+	 * @return Open distance of the detent in pixels.
+	 */
+	public float getDetentOffset(int slider, int detent) {
+		int edge = getEdgeIndex(slider);
+
+		return edge==-1?0:mDetentOffsets[edge][detent];
+	}
+
+	/*
+	 * Detents that clamp onto closed, fully open or each other are dropped so every offset has a single detent. Closed
+	 * and fully open stay two detents even when the slider has no size yet.
+	 */
+	private void updateDetentOffsets(int edge) {
+		float[] intermediateDetents = mIntermediateDetents[edge];
+		float[] offsets = mDetentOffsets[edge];
+		float size = Math.max(0, mSizes[edge]);
+
+		offsets[0] = 0;
+
+		int count = 1;
+
+		for (int i=0; i<intermediateDetents.length; i++) {
+			float offset = Math.min(intermediateDetents[i], size);
+
+			if (offset>offsets[count - 1]) {
+				offsets[count++] = offset;
+			}
+		}
+
+		if (count==1 || offsets[count - 1]<size) {
+			offsets[count++] = size;
+		}
+
+		mDetentCounts[edge] = count;
+
+		// The resting or target detent of the edge's slider may now be past the end.
+		int slider = mSlidingSlider!=NO_SLIDER?mSlidingSlider:mOpenSlider;
+
+		if (slider!=NO_SLIDER && getEdgeIndex(slider)==edge) {
+			mDetent = Math.min(mDetent, count - 1);
+			mTargetDetent = Math.min(mTargetDetent, count - 1);
+		}
+	}
+
+	/**
+	 * Sliders that do not exist yet but are created when a touch down lands in their edge area.
+	 */
+	public void setProvidedSliders(int sliders) {
+		mProvidedSliders = sliders;
+	}
+
+	public boolean hasSlider(int slider) {
+		return slider!=NO_SLIDER && (getSliderSize(slider)!=NO_SIZE || (mProvidedSliders&slider)==slider);
+	}
+
+	public void setLockedSliders(int sliders) {
+		mLockedSliders = sliders;
+
+		if (isLocked(mOpenSlider)) {
+			flyClose();
+		}
+	}
+
+	public int getLockedSliders() {
+		return mLockedSliders;
+	}
+
+	public boolean isLocked(int slider) {
+		return slider!=NO_SLIDER && (mLockedSliders&slider)==slider;
+	}
+
+	public void setCatchesFlyingSliders(boolean catchesFlyingSliders) {
+		mCatchesFlyingSliders = catchesFlyingSliders;
+	}
+
+	public boolean catchesFlyingSliders() {
+		return mCatchesFlyingSliders;
+	}
+
+	public void setSpring(float stiffness, float dampingRatio) {
+		mSpring.setSpring(stiffness, dampingRatio);
+		mEstimationSpring.setSpring(stiffness, dampingRatio);
+	}
+
+	public float getStiffness() {
+		return mSpring.getStiffness();
+	}
+
+	public float getDampingRatio() {
+		return mSpring.getDampingRatio();
+	}
+
+	/**
+	 * @return Settle time in milliseconds of the current or the last fly.
+	 */
+	public long getFlyDuration() {
+		return mFlyDuration;
+	}
+
+	/**
+	 * @return Time in milliseconds that a fly over the distance with the given release velocity settles in.
+	 */
+	public long computeFlyDuration(float distance, float velocity) {
+		return mEstimationSpring.start(0, velocity, distance);
+	}
+
+	public int getState() {
+		return mState;
+	}
+
+	public int getOpenSlider() {
+		return mOpenSlider;
+	}
+
+	public int getSlidingSlider() {
+		return mSlidingSlider;
+	}
+
+	/**
+	 * @return The detent the sliding slider rests at, or last rested at while it moves. 0 if no slider is open.
+	 */
+	public int getDetent() {
+		return mDetent;
+	}
+
+	public float getSlideAmount() {
+		return mSlideAmount;
+	}
+
+	/**
+	 * @return How much the sliding slider is open, from 0 to 1.
+	 */
+	public float getSlideRatio() {
+		int size = getSliderSize(mSlidingSlider);
+
+		// An empty wrap_content slider has no size to be open by.
+		if (size<=0) {
+			return 0;
+		}
+
+		return Math.abs(mSlideAmount)/size;
+	}
+
+	public boolean isFlyingOpen() {
+		return mState==STATE_FLYING && mIsFlyingOpen;
+	}
+
+	/**
+	 * @return Velocity of the current fly in pixels per second.
+	 */
+	public float getFlyVelocity() {
+		return mState==STATE_FLYING?mFlyVelocity:0;
+	}
+
+	public boolean isTouchDown() {
+		return mIsTouchDown;
+	}
+
+	/**
+	 * @return The slider whose edge area contains the position while no slider is open, otherwise {@link #NO_SLIDER}.
+	 * Left and right edges are checked before top and bottom ones.
+	 */
+	public int getEdgeAt(float x, float y) {
+		if (mOpenSlider!=NO_SLIDER) {
+			return NO_SLIDER;
+		}
+
+		if (x<mSensitiveAreaWidth && hasSlider(LEFT)) {
+			return LEFT;
+		}
+
+		if (x>mWidth - mSensitiveAreaWidth && hasSlider(RIGHT)) {
+			return RIGHT;
+		}
+
+		if (y<mSensitiveAreaWidth && hasSlider(TOP)) {
+			return TOP;
+		}
+
+		if (y>mHeight - mSensitiveAreaWidth && hasSlider(BOTTOM)) {
+			return BOTTOM;
+		}
+
+		return NO_SLIDER;
+	}
+
+	/**
+	 * @return The slider that a drag starting at the position would move. That is the sliding or open slider, then the
+	 * slider whose edge area contains the position, and otherwise the left or right slider on the side of the position.
+	 */
+	public int getDragSlider(float x, float y) {
+		if (mSlidingSlider!=NO_SLIDER) {
+			return mSlidingSlider;
+		}
+
+		int edge = getEdgeAt(x, y);
+
+		if (edge!=NO_SLIDER) {
+			return edge;
+		}
+
+		return x<mWidth/2?LEFT:RIGHT;
+	}
+
+	/**
+	 * @return Whether the position is on the part of the content that is not covered by the open slider.
+	 */
+	public boolean isOverContent(float x, float y) {
+		switch (mOpenSlider) {
+		case LEFT:
+			return x>mSlideAmount;
+		case RIGHT:
+			return x<mWidth + mSlideAmount;
+		case TOP:
+			return y>mSlideAmount;
+		case BOTTOM:
+			return y<mHeight + mSlideAmount;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * @return Whether the touch starts a slide, in which case the rest of the stream should be delivered.
+	 */
+	public boolean onTouchDown(float x, float y) {
+		if (mOpenSlider==NO_SLIDER && getEdgeAt(x, y)==NO_SLIDER) {
+			return false;
+		}
+
+		mIsTouchDown = true;
+
+		return true;
+	}
+
+	/**
+	 * @param slider The slider the drag is for, as returned by {@link #getDragSlider(float, float)} on touch down. It
+	 * starts sliding once the drag moves it open.
+	 * @param delta Movement along the slider's axis since the last call in pixels.
+	 * @return Whether the movement moved a slider.
+	 */
+	public boolean onTouchScroll(int slider, float delta) {
+		if (!mIsTouchDown) {
+			mIsTouchDown = true;
+			return true;
+		}
+
+		mState = STATE_SCROLLING;
+
+		mSlideAmount += delta;
+
+		if (mSlidingSlider==NO_SLIDER && getSliderSize(slider)!=NO_SIZE && !isLocked(slider)
+				&& (opensPositive(slider)?mSlideAmount>0:mSlideAmount<0)) {
+			mSlidingSlider = slider;
+
+			mCallback.onStateChanged(STATE_SCROLLING, mSlidingSlider);
+		}
+
+		if (mSlidingSlider==NO_SLIDER) {
+			mSlideAmount = 0;
+			return false;
+		}
+
+		mSlideAmount = clampSlideAmount(mSlideAmount);
+
+		mCallback.onScrollChanged(getSlideRatio(), mSlidingSlider);
+		mCallback.onSlideAmountChanged(mSlideAmount);
+
+		return true;
+	}
+
+	/**
+	 * Flies to the next detent in the direction of the fling.
+	 *
+	 * @param velocity Release velocity along the sliding slider's axis in pixels per second.
+	 * @return Whether the fling started a fly.
+	 */
+	public boolean onTouchFling(float velocity) {
+		if (mSlidingSlider==NO_SLIDER) {
+			return false;
+		}
+
+		int edge = getEdgeIndex(mSlidingSlider);
+		int index = Arrays.binarySearch(mDetentOffsets[edge], 0, mDetentCounts[edge], Math.abs(mSlideAmount));
+		int last = mDetentCounts[edge] - 1;
+		int detent;
+
+		if (opensPositive(mSlidingSlider)==velocity>0) {
+			detent = index>=0?Math.min(index + 1, last):-index - 1;
+		}
+		else {
+			detent = index>=0?Math.max(index - 1, 0):-index - 2;
+		}
+
+		flyToDetent(detent, velocity);
+		return true;
+	}
+
+	/**
+	 * Settles a slider that was left between closed and open, or closes the open slider when the content is tapped.
+	 */
+	public void onTouchUp(float x, float y) {
+		if (mState==STATE_IDLE) {
+			mIsTouchDown = false;
+
+			if (isOverContent(x, y)) {
+				flyClose();
+			}
+			return;
+		}
+
+		onDragEnd();
+	}
+
+	/**
+	 * Starts a drag that did not begin with a touch down on an edge, like scrolling handed over by a nested child. The
+	 * first {@link #onTouchScroll(int, float)} after it moves the slider.
+	 */
+	public void onDragStart() {
+		mIsTouchDown = true;
+	}
+
+	/**
+	 * Settles a slider that was left between detents. It flies to the nearest detent, or closes if the slider has no
+	 * detents between closed and open. Unlike {@link #onTouchUp(float, float)} it never closes an open slider.
+	 */
+	public void onDragEnd() {
+		mIsTouchDown = false;
+
+		if (mState!=STATE_SCROLLING) {
+			return;
+		}
+
+		if (mSlidingSlider==NO_SLIDER) {
+			settle(0);
+			return;
+		}
+
+		int edge = getEdgeIndex(mSlidingSlider);
+		float[] offsets = mDetentOffsets[edge];
+		float distance = Math.abs(mSlideAmount);
+		int index = Arrays.binarySearch(offsets, 0, mDetentCounts[edge], distance);
+
+		if (index>=0) {
+			settle(index);
+		}
+		else if (mDetentCounts[edge]==2) {
+			flyClose();
+		}
+		else {
+			int next = -index - 1;
+
+			flyToDetent(offsets[next] - distance<distance - offsets[next - 1]?next:next - 1, getFlyVelocity());
+		}
+	}
+
+	/**
+	 * Stops the fly at the current slide amount and turns it into a drag of the same slider.
+	 */
+	public void catchFly() {
+		if (mState!=STATE_FLYING) {
+			return;
+		}
+
+		mCallback.onFlyCanceled();
+
+		mState = STATE_SCROLLING;
+		mIsTouchDown = true;
+
+		mCallback.onStateChanged(STATE_SCROLLING, mSlidingSlider);
+	}
+
+	public void openSlider(int slider) {
+		openSlider(slider, getDetentCount(slider) - 1);
+	}
+
+	/**
+	 * Flies the slider to the detent. Detent 0 closes it.
+	 */
+	public void openSlider(int slider, int detent) {
+		if (mSlidingSlider!=NO_SLIDER && mSlidingSlider!=slider) {
+			return;
+		}
+
+		if (getSliderSize(slider)==NO_SIZE || detent<0 || detent>=getDetentCount(slider)) {
+			return;
+		}
+
+		mSlidingSlider = slider;
+
+		flyToDetent(detent, getFlyVelocity());
+	}
+
+	/**
+	 * Closes the open slider, or reverses a fly that is opening one.
+	 */
+	public void closeSliders() {
+		if (mState==STATE_FLYING) {
+			if (mIsFlyingOpen) {
+				flyClose();
+			}
+			return;
+		}
+
+		if (mOpenSlider!=NO_SLIDER) {
+			flyClose();
+		}
+	}
+
+	public void closeSlider(int slider) {
+		if (mState==STATE_FLYING) {
+			if (mIsFlyingOpen && mSlidingSlider==slider) {
+				flyClose();
+			}
+			return;
+		}
+
+		if (slider!=NO_SLIDER && mOpenSlider==slider) {
+			flyClose();
+		}
+	}
+
+	public void closeSliderImmediately(int slider) {
+		if (mState==STATE_FLYING) {
+			if (mSlidingSlider==slider) {
+				mCallback.onFlyCanceled();
+
+				closeImmediately();
+			}
+			return;
+		}
+
+		if (slider!=NO_SLIDER && mOpenSlider==slider) {
+			closeImmediately();
+		}
+	}
+
+	private void closeImmediately() {
+		mSlideAmount = 0;
+
+		mCallback.onSlideAmountChanged(mSlideAmount);
+
+		settle(0);
+	}
+
+	/**
+	 * Flies closed with the velocity of the current fly, or from rest.
+	 */
+	public void flyClose() {
+		flyClose(getFlyVelocity());
+	}
+
+	/**
+	 * @param velocity Slide amount change in pixels per second.
+	 */
+	public void flyClose(float velocity) {
+		flyToDetent(0, velocity);
+	}
+
+	/**
+	 * Flies the sliding slider open with the velocity of the current fly, or from rest.
+	 */
+	public void flyOpen() {
+		flyOpen(getFlyVelocity());
+	}
+
+	public void flyOpen(float velocity) {
+		flyToDetent(getDetentCount(mSlidingSlider) - 1, velocity);
+	}
+
+	private void flyToDetent(int detent, float velocity) {
+		float target = 0;
+
+		if (detent>0) {
+			target = getDetentOffset(mSlidingSlider, detent);
+
+			if (!opensPositive(mSlidingSlider)) {
+				target = -target;
+			}
+		}
+
+		boolean wasFlying = mState==STATE_FLYING;
+
+		mState = STATE_FLYING;
+		mIsFlyingOpen = detent>0;
+		mTargetDetent = detent;
+
+		if (!wasFlying) {
+			mCallback.onStateChanged(STATE_FLYING, mSlidingSlider);
+		}
+
+		mFlyVelocity = velocity;
+		mFlyDuration = mSpring.start(mSlideAmount, velocity, target);
+
+		mCallback.onFlyStarted(mFlyDuration);
+	}
+
+	/**
+	 * @param time Milliseconds passed since the last {@link Callback#onFlyStarted(long)}. The fly ends once the time
+	 * reaches its duration.
+	 */
+	public void onFlyFrame(long time) {
+		if (mState!=STATE_FLYING) {
+			return;
+		}
+
+		if (time>=mFlyDuration) {
+			endFly();
+			return;
+		}
+
+		mFlyVelocity = mSpring.getVelocity(time);
+
+		setFlySlideAmount(clampSlideAmount(mSpring.getPosition(time)));
+	}
+
+	private void endFly() {
+		setFlySlideAmount(mSpring.getTarget());
+
+		mFlyVelocity = 0;
+
+		settle(mTargetDetent);
+	}
+
+	/*
+	 * Rests the sliding slider at the detent it is at. Open is only reported for the last detent, but the slider counts
+	 * as open at every detent other than 0.
+	 */
+	private void settle(int detent) {
+		int slider = mSlidingSlider;
+		int previousDetent = mDetent;
+
+		mState = STATE_IDLE;
+		mDetent = detent;
+
+		if (detent==0) {
+			mSlidingSlider = NO_SLIDER;
+			mOpenSlider = NO_SLIDER;
+
+			mCallback.onStateChanged(STATE_IDLE, slider);
+			mCallback.onSliderClosed(slider);
+		}
+		else {
+			mOpenSlider = slider;
+
+			mCallback.onStateChanged(STATE_IDLE, slider);
+
+			if (detent==getDetentCount(slider) - 1) {
+				mCallback.onSliderOpened(slider);
+			}
+		}
+
+		if (detent!=previousDetent) {
+			mCallback.onDetentChanged(detent, slider);
+		}
+	}
+
+	private void setFlySlideAmount(float slideAmount) {
+		mSlideAmount = slideAmount;
+
+		mCallback.onSlideAmountChanged(mSlideAmount);
+		mCallback.onScrollChanged(getSlideRatio(), mSlidingSlider);
+	}
+
+	private float clampSlideAmount(float slideAmount) {
+		if (mSlidingSlider==NO_SLIDER) {
+			return 0;
+		}
+
+		int size = getSliderSize(mSlidingSlider);
+
+		if (opensPositive(mSlidingSlider)) {
+			return Math.max(0, Math.min(slideAmount, size));
+		}
+
+		return Math.max(-size, Math.min(slideAmount, 0));
+	}
+
+}
@@ -1,33 +1,40 @@
 package com.yashoid.sliderlayout;
 
-import android.animation.Animator;
-import android.animation.Animator.AnimatorListener;
-import android.animation.ValueAnimator;
-import android.animation.ValueAnimator.AnimatorUpdateListener;
+import android.animation.TimeInterpolator;
 import android.annotation.SuppressLint;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
+import android.graphics.LightingColorFilter;
 import android.graphics.Paint;
+import android.graphics.RectF;
 import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.util.AttributeSet;
-import android.view.GestureDetector;
-import android.view.GestureDetector.OnGestureListener;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.KeyEvent;
+import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
 import android.view.ViewGroup;
-import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.ViewParent;
+import android.view.WindowManager;
 
 @SuppressLint("RtlHardcoded")
 public class SliderLayout extends ViewGroup {
 	
-	private static final long FLY_DURATION = 300;
+	private static final int DEFAULT_MAXIMUM_DARKNESS = 128;
 	
-	private static final int MAXIMUM_DARKNESS = 128;
+	/* Slider gravities in the edge order of SliderEngine. */
+	private static final int[] EDGE_GRAVITIES = { Gravity.LEFT, Gravity.TOP, Gravity.RIGHT, Gravity.BOTTOM };
 	
+	private static final int ALL_SLIDERS = Gravity.LEFT | Gravity.TOP | Gravity.RIGHT | Gravity.BOTTOM;
+
 	public interface SliderListener {
 		
 		void onStateChanged(int state, int slider);
@@ -40,6 +47,51 @@ public class SliderLayout extends ViewGroup {
 		
 	}
 	
+	/**
+	 * A {@link SliderListener} that is also told which detent a slider comes to rest at. Detent 0 is closed and the last
+	 * detent is fully open, which is the only one that is reported as opened.
+	 */
+	public interface DetentListener extends SliderListener {
+		
+		void onDetentChanged(int detent, int slider);
+		
+	}
+	
+	public interface SlideMetricsListener {
+		
+		/**
+		 * Called when the layout gets idle after a slide. The metrics object is reused and only valid during this call.
+		 */
+		void onSlideMetrics(SlideMetrics metrics);
+		
+	}
+	
+	/**
+	 * Creates a slider the first time it is needed, which is on the first touch down in its edge area, on
+	 * {@link #openSlider(int)} or when prefetching. The returned view is added with the given gravity.
+	 */
+	public interface SliderProvider {
+		
+		View onCreateSlider(SliderLayout sliderLayout, int gravity);
+		
+	}
+	
+	/**
+	 * Predicts where the finger will be when the frame that is drawn for the latest touch event is shown, so the slider
+	 * does not lag behind it. The prediction is dropped on release.
+	 */
+	public interface MotionPredictor {
+		
+		/**
+		 * @param position Latest touch position along the axis of the dragged slider in pixels.
+		 * @param velocity Touch velocity along the same axis in pixels per second.
+		 * @param latency Milliseconds from the latest touch sample to the expected presentation of the frame.
+		 * @return Predicted touch position in pixels.
+		 */
+		float predict(float position, float velocity, long latency);
+		
+	}
+	
 	public static final int STATE_IDLE = 0;
 	public static final int STATE_SCROLLING = 1;
 	public static final int STATE_FLYING = 2;
@@ -47,38 +99,99 @@ public class SliderLayout extends ViewGroup {
 	public static final int SLIDER_NO_SLIDER = Gravity.NO_GRAVITY;
 	public static final int SLIDER_LEFT = Gravity.LEFT;
 	public static final int SLIDER_RIGHT = Gravity.RIGHT;
+	public static final int SLIDER_TOP = Gravity.TOP;
+	public static final int SLIDER_BOTTOM = Gravity.BOTTOM;
+
+	public static final int SLIDE_MODE_OFFSET = 0;
+	public static final int SLIDE_MODE_LAYOUT = 1;
+	
+	public static final int DARKENING_MODE_DRAW = 0;
+	public static final int DARKENING_MODE_TINT = 1;
 
 	private int mWidth;
 	private int mHeight;
 	
 	private View mContent;
-	private View mLeftSlider;
-	private View mRightSlider;
+	
+	// Sliders by edge in the edge order of SliderEngine. Only the active slider of an edge slides, the others are hidden.
+	private View[][] mSliders = new View[SliderEngine.EDGE_COUNT][];
+	private int[] mSliderCounts = new int[SliderEngine.EDGE_COUNT];
+	private View[] mActiveSliders = new View[SliderEngine.EDGE_COUNT];
+	
+	private int mResolvedChildCount = 0;
+	
+	private SliderProvider[] mSliderProviders = new SliderProvider[SliderEngine.EDGE_COUNT];
+
+	private boolean mPrefetchesSliders = false;
+	private boolean mIsPrefetchScheduled = false;
+	
+	private boolean mHasChildSpecs = false;
+	private int mChildWidthSpec;
+	private int mChildHeightSpec;
+	private int mChildWidthSize;
+	private int mChildHeightSize;
 
 	private Paint mDarkenerPaint;
+	private RectF mUncoveredRect = new RectF();
+
+	private int mDarkeningMode = DARKENING_MODE_DRAW;
+	private int mDarkeningColor = 0xff000000;
+	private int mMaximumDarkness = DEFAULT_MAXIMUM_DARKNESS;
+	private TimeInterpolator mDarkeningInterpolator = null;
 	
-	private int mState = STATE_IDLE;
-	private int mOpenSlider = Gravity.NO_GRAVITY;
-	private int mSlidingSlider = Gravity.NO_GRAVITY;
+	private Paint mTintPaint = null;
+	private LightingColorFilter[] mTintFilters = null;
 	
 	private int mOverSliders = Gravity.NO_GRAVITY;
 	private int mDarkeningSliders = Gravity.NO_GRAVITY;
 	
-	private int mLockedSliders = Gravity.NO_GRAVITY;
+	private int mHardwareLayerSliders = Gravity.NO_GRAVITY;
 	
-	/* This to prevent the cases in which MOVE motion event is received without a prior DOWN. This causes the GestureDetector to
-	 * call a jump onScroll value. */
-	private boolean mIsTouchDown = false;
+	private boolean mHidesClosedSliders = false;
 	
-	private float mSlideAmount;
+	private int mSlideMode = SLIDE_MODE_OFFSET;
 	
-	private float mSensitiveAreaWidth;
+	private int mChildMeasureCount = 0;
+	private int mMeasureCacheHitCount = 0;
 	
-	private GestureDetector mGestureDetector;
-	private GestureDetector mInterceptGestureDetector;
+	private TouchTracker mTouchTracker;
+	private int mDragSlider = SLIDER_NO_SLIDER;
+	private float mMinimumFlingVelocity;
+	private float mMaximumFlingVelocity;
+	
+	private boolean mUsesHistoricalTouchSamples = false;
+	private MotionPredictor mMotionPredictor = null;
+	private long mFrameIntervalMillis = 16;
+	
+	private boolean mSlidesOnNestedScroll = false;
+	private boolean mIsNestedSliding = false;
+	private int[] mNestedConsumed = new int[2];
+	private int[] mNestedOffset = new int[2];
+	
+	// Set by a SliderLayout inside this one that takes the current gesture. Cleared on the next down.
+	private boolean mIsGestureClaimed = false;
+	
+	private SliderEngine mEngine;
+	private FlyAnimator mFlyAnimator;
+	
+	private static final SliderListener[] NO_LISTENERS = new SliderListener[0];
 	
 	private SliderListener mSliderListener = null;
 	
+	// Copy on write so dispatching needs no iterator and listeners can be added or removed from inside a callback.
+	private SliderListener[] mSliderListeners = NO_LISTENERS;
+	
+	private SlideMetricsTracker mMetricsTracker = null;
+	
+	private int mSlideTraceCookie = 0;
+	private int mFlyTraceCookie = 0;
+	
+	private boolean mCoalescesScrollCallbacks = false;
+	private ScrollFrameCallback mScrollFrameCallback = null;
+	private boolean mHasPendingScrollChange = false;
+	private float mPendingScrollRatio;
+	private int mPendingScrollSlider;
+	
 	public SliderLayout(Context context) {
 		super(context);
 		initialize(context, null, 0, 0);
@@ -101,43 +214,176 @@ public class SliderLayout extends ViewGroup {
 	}
 	
 	private void initialize(Context context, AttributeSet attrs, int defStyleAttr,int defStyleRes) {
-		mGestureDetector = new GestureDetector(context, mOnSlideListener);
-		mInterceptGestureDetector = new GestureDetector(getContext(), mInterceptGestureListener);
+		ViewConfiguration configuration = ViewConfiguration.get(context);
+		
+		mTouchTracker = new TouchTracker(configuration.getScaledTouchSlop());
+		mMinimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+		mMaximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
 		
-		mSensitiveAreaWidth = context.getResources().getDimension(R.dimen._sliderlayout_default_sensitiveareawidth);
+		mEngine = new SliderEngine(mEngineCallback);
+		mFlyAnimator = new FlyAnimator(mFlyCallback);
+		
+		float sensitiveAreaWidth = context.getResources().getDimension(R.dimen._sliderlayout_default_sensitiveareawidth);
 		
 		TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.SliderLayout, defStyleAttr, defStyleRes);
 		
-		mSensitiveAreaWidth = a.getDimension(R.styleable.SliderLayout_sensitiveAreaWidth, mSensitiveAreaWidth);
+		mEngine.setSensitiveAreaWidth(a.getDimension(R.styleable.SliderLayout_sensitiveAreaWidth, sensitiveAreaWidth));
 		mOverSliders = a.getInt(R.styleable.SliderLayout_overSliders, mOverSliders);
 		mDarkeningSliders = a.getInt(R.styleable.SliderLayout_darkeningSliders, mDarkeningSliders);
-		mLockedSliders = a.getInt(R.styleable.SliderLayout_lockedSliders, mLockedSliders);
+		mEngine.setLockedSliders(a.getInt(R.styleable.SliderLayout_lockedSliders, Gravity.NO_GRAVITY));
+		mHardwareLayerSliders = a.getInt(R.styleable.SliderLayout_hardwareLayerSliders, mHardwareLayerSliders);
+		mHidesClosedSliders = a.getBoolean(R.styleable.SliderLayout_hideClosedSliders, mHidesClosedSliders);
+		mPrefetchesSliders = a.getBoolean(R.styleable.SliderLayout_prefetchSliders, mPrefetchesSliders);
+		mDarkeningMode = a.getInt(R.styleable.SliderLayout_darkeningMode, mDarkeningMode);
+		mDarkeningColor = a.getColor(R.styleable.SliderLayout_darkeningColor, mDarkeningColor);
+		mMaximumDarkness = a.getInt(R.styleable.SliderLayout_maximumDarkness, mMaximumDarkness);
+		
+		float peekSize = a.getDimension(R.styleable.SliderLayout_peekSize, 0);
+		int peekSliders = a.getInt(R.styleable.SliderLayout_peekSliders, Gravity.NO_GRAVITY);
+		
+		if (peekSize>0) {
+			for (int edge=0; edge<EDGE_GRAVITIES.length; edge++) {
+				int gravity = EDGE_GRAVITIES[edge];
+				
+				if ((peekSliders&gravity)==gravity) {
+					setSliderDetents(gravity, new float[] { peekSize });
+				}
+			}
+		}
+
+		setSliderLayout(Gravity.LEFT, a.getResourceId(R.styleable.SliderLayout_leftSliderLayout, 0));
+		setSliderLayout(Gravity.TOP, a.getResourceId(R.styleable.SliderLayout_topSliderLayout, 0));
+		setSliderLayout(Gravity.RIGHT, a.getResourceId(R.styleable.SliderLayout_rightSliderLayout, 0));
+		setSliderLayout(Gravity.BOTTOM, a.getResourceId(R.styleable.SliderLayout_bottomSliderLayout, 0));
+		
+		mSlideMode = a.getInt(R.styleable.SliderLayout_slideMode, mSlideMode);
+		mEngine.setCatchesFlyingSliders(a.getBoolean(R.styleable.SliderLayout_catchFlyingSliders, false));
+		
+		boolean coalescesScrollCallbacks = a.getBoolean(R.styleable.SliderLayout_coalesceScrollCallbacks, false);
+		
+		mSlidesOnNestedScroll = a.getBoolean(R.styleable.SliderLayout_slideOnNestedScroll, mSlidesOnNestedScroll);
+		mUsesHistoricalTouchSamples = a.getBoolean(R.styleable.SliderLayout_useHistoricalTouchSamples, mUsesHistoricalTouchSamples);
+		
+		if (a.getBoolean(R.styleable.SliderLayout_predictMotion, false)) {
+			mMotionPredictor = new LinearMotionPredictor();
+		}
+		
+		float flyStiffness = a.getFloat(R.styleable.SliderLayout_flyStiffness, SettleSpring.DEFAULT_STIFFNESS);
+		float flyDampingRatio = a.getFloat(R.styleable.SliderLayout_flyDampingRatio, SettleSpring.DEFAULT_DAMPING_RATIO);
 		
 		a.recycle();
 		
+		mEngine.setSpring(flyStiffness, flyDampingRatio);
+		
+		if (Build.VERSION.SDK_INT<Build.VERSION_CODES.JELLY_BEAN_MR1) {
+			mDarkeningMode = DARKENING_MODE_DRAW;
+		}
+		
+		setCoalescesScrollCallbacks(coalescesScrollCallbacks);
+		
 		setWillNotDraw(false);
 		
 		mDarkenerPaint = new Paint();
-		mDarkenerPaint.setColor(0xff000000);
+		mDarkenerPaint.setColor(mDarkeningColor);
 		
 //		setOnKeyListener(mBackKeyListener);
 	}
 	
+	private void setSliderLayout(int gravity, int layoutId) {
+		if (layoutId!=0) {
+			mSliderProviders[SliderEngine.getEdgeIndex(gravity)] = new LayoutSliderProvider(layoutId);
+		}
+	}
+
 	@Override
-	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-		int widthSize = MeasureSpec.getSize(widthMeasureSpec);
-		int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+	public void onViewAdded(View child) {
+		super.onViewAdded(child);
 		
-		int widthMode = MeasureSpec.getMode(widthMeasureSpec);
-		int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+		resolveChildRoles();
 		
-		int childWidthMode = widthMode==MeasureSpec.UNSPECIFIED?MeasureSpec.UNSPECIFIED:MeasureSpec.EXACTLY;
-		int childHeightMode = heightMode==MeasureSpec.UNSPECIFIED?MeasureSpec.UNSPECIFIED:MeasureSpec.EXACTLY;
+		hideClosedSliders();
+	}
+	
+	@Override
+	public void onViewRemoved(View child) {
+		super.onViewRemoved(child);
+		
+		removeChildRole(child);
+	}
+	
+	/*
+	 * removeView takes the child out of the children array before onViewRemoved, but removeViews and removeAllViews do
+	 * it after notifying the whole range. So the child is taken out of the roles here instead of resolving them again
+	 * from children that may still include it.
+	 */
+	private void removeChildRole(View child) {
+		if (child==mContent) {
+			mContent = null;
+		}
+		
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			View[] sliders = mSliders[edge];
+			int count = mSliderCounts[edge];
+			
+			for (int i=0; i<count; i++) {
+				if (sliders[i]==child) {
+					System.arraycopy(sliders, i + 1, sliders, i, count - i - 1);
+					sliders[count - 1] = null;
+					mSliderCounts[edge] = count - 1;
+					
+					if (child==mActiveSliders[edge]) {
+						mActiveSliders[edge] = null;
+						
+						resolveActiveSlider(edge);
+					}
+					break;
+				}
+			}
+		}
+		
+		mResolvedChildCount--;
+		
+		updateEngineSliders();
+	}
+	
+	/*
+	 * Roles are resolved when the hierarchy changes. Layout params can be replaced or have their gravity changed without
+	 * a hierarchy change, so the cheap checks here catch that before a measure.
+	 */
+	private void ensureChildRoles() {
+		if (getChildCount()!=mResolvedChildCount || !hasGravity(mContent, Gravity.NO_GRAVITY)
+				|| !slidersHaveTheirGravity()) {
+			resolveChildRoles();
+		}
+	}
+	
+	private boolean slidersHaveTheirGravity() {
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			for (int i=0; i<mSliderCounts[edge]; i++) {
+				if (!hasGravity(mSliders[edge][i], EDGE_GRAVITIES[edge])) {
+					return false;
+				}
+			}
+		}
 		
+		return true;
+	}
+
+	private static boolean hasGravity(View child, int gravity) {
+		return child==null || ((LayoutParams) child.getLayoutParams()).gravity==gravity;
+	}
+	
+	private void resolveChildRoles() {
 		final int childCount = getChildCount();
 		
-		if (childCount>3) {
-			throw new IllegalStateException("LayoutSlider can not have more than 3 child views.");
+		mContent = null;
+		
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			for (int i=0; i<mSliderCounts[edge]; i++) {
+				mSliders[edge][i] = null;
+			}
+			
+			mSliderCounts[edge] = 0;
 		}
 		
 		for (int i=0; i<childCount; i++) {
@@ -145,19 +391,127 @@ public class SliderLayout extends ViewGroup {
 			
 			LayoutParams params = (LayoutParams) child.getLayoutParams();
 			
-			switch (params.gravity) {
-			case Gravity.NO_GRAVITY:
+			if (params.gravity==Gravity.NO_GRAVITY) {
 				mContent = child;
+				continue;
+			}
+			
+			int edge = SliderEngine.getEdgeIndex(params.gravity);
+			
+			if (edge!=-1) {
+				addEdgeSlider(edge, child);
+			}
+		}
+		
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			resolveActiveSlider(edge);
+		}
+		
+		mResolvedChildCount = childCount;
+
+		updateEngineSliders();
+	}
+	
+	private void addEdgeSlider(int edge, View slider) {
+		View[] sliders = mSliders[edge];
+		int count = mSliderCounts[edge];
+		
+		if (sliders==null || count==sliders.length) {
+			View[] grown = new View[count + 1];
+			
+			if (sliders!=null) {
+				System.arraycopy(sliders, 0, grown, 0, count);
+			}
+			
+			sliders = grown;
+			mSliders[edge] = sliders;
+		}
+		
+		sliders[count] = slider;
+		mSliderCounts[edge] = count + 1;
+	}
+	
+	/*
+	 * The active slider of an edge stays active while it is in the layout. Otherwise the first slider of the edge takes
+	 * its place. The other sliders of the edge are kept hidden.
+	 */
+	private void resolveActiveSlider(int edge) {
+		View[] sliders = mSliders[edge];
+		int count = mSliderCounts[edge];
+		View active = mActiveSliders[edge];
+		
+		boolean isActiveInEdge = false;
+		
+		for (int i=0; i<count; i++) {
+			if (sliders[i]==active) {
+				isActiveInEdge = true;
 				break;
-			case Gravity.LEFT:
-				mLeftSlider = child;
-				break;
-			case Gravity.RIGHT:
-				mRightSlider = child;
-				break;
 			}
 		}
 		
+		if (!isActiveInEdge) {
+			active = count==0?null:sliders[0];
+			
+			mActiveSliders[edge] = active;
+		}
+		
+		for (int i=0; i<count; i++) {
+			if (sliders[i]!=active) {
+				hideSlider(sliders[i]);
+			}
+		}
+		
+		// A measure and layout pass follows any change of roles.
+		if (!mHidesClosedSliders) {
+			unhideSlider(active);
+		}
+	}
+	
+	private void updateEngineSliders() {
+		int providedSliders = Gravity.NO_GRAVITY;
+		
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			int gravity = EDGE_GRAVITIES[edge];
+			View slider = mActiveSliders[edge];
+			
+			if (slider==null) {
+				mEngine.setSliderSize(gravity, SliderEngine.NO_SIZE);
+			}
+			else {
+				mEngine.setSliderSize(gravity, SliderEngine.isVertical(gravity)?slider.getHeight():slider.getWidth());
+			}
+			
+			if (mSliderProviders[edge]!=null) {
+				providedSliders |= gravity;
+			}
+		}
+		
+		mEngine.setProvidedSliders(providedSliders);
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		SliderTrace.beginSection(SliderTrace.ON_MEASURE);
+		
+		try {
+			measureLayout(widthMeasureSpec, heightMeasureSpec);
+		} finally {
+			SliderTrace.endSection();
+		}
+	}
+	
+	private void measureLayout(int widthMeasureSpec, int heightMeasureSpec) {
+		int widthSize = MeasureSpec.getSize(widthMeasureSpec);
+		int heightSize = MeasureSpec.getSize(heightMeasureSpec);
+		
+		int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+		int heightMode = MeasureSpec.getMode(heightMeasureSpec);
+		
+		int childWidthMode = widthMode==MeasureSpec.UNSPECIFIED?MeasureSpec.UNSPECIFIED:MeasureSpec.EXACTLY;
+		int childHeightMode = heightMode==MeasureSpec.UNSPECIFIED?MeasureSpec.UNSPECIFIED:MeasureSpec.EXACTLY;
+		
+		ensureChildRoles();
+		
 		int widthSpec = MeasureSpec.makeMeasureSpec(widthSize, childWidthMode);
 		int heightSpec = MeasureSpec.makeMeasureSpec(heightSize, childHeightMode);
 		
@@ -165,44 +519,38 @@ public class SliderLayout extends ViewGroup {
 		int contentMeasuredHeight = 0;
 		
 		if (mContent!=null) {
-			mContent.measure(widthSpec, heightSpec);
+			measureChildIfNeeded(mContent, widthSpec, heightSpec);
 			
 			contentMeasuredWidth = mContent.getMeasuredWidth();
 			contentMeasuredHeight = mContent.getMeasuredHeight();
 		}
 		
 		
-		int leftSliderMeasuredWidth = 0;
-		int leftSliderMeasuredHeight = 0;
-		
-		if (mLeftSlider!=null) {
-			measureSlider(mLeftSlider, widthSpec, heightSpec, widthSize, heightSize);
-			
-			leftSliderMeasuredWidth = mLeftSlider.getMeasuredWidth();
-			leftSliderMeasuredHeight = mLeftSlider.getMeasuredHeight();
-		}
-		
-		
-		int rightSliderMeasuredWidth = 0;
-		int rightSliderMeasuredHeight = 0;
+		// Only shown active sliders are measured. The others are measured when they are shown or made active.
+		int slidersMeasuredWidth = 0;
+		int slidersMeasuredHeight = 0;
 		
-		if (mRightSlider!=null) {
-			measureSlider(mRightSlider, widthSpec, heightSpec, widthSize, heightSize);
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			View slider = mActiveSliders[edge];
 			
-			rightSliderMeasuredWidth = mRightSlider.getMeasuredWidth();
-			rightSliderMeasuredHeight = mRightSlider.getMeasuredHeight();
+			if (slider!=null && !isSliderHidden(slider)) {
+				measureSlider(slider, widthSpec, heightSpec, widthSize, heightSize);
+				
+				slidersMeasuredWidth = Math.max(slidersMeasuredWidth, slider.getMeasuredWidth());
+				slidersMeasuredHeight = Math.max(slidersMeasuredHeight, slider.getMeasuredHeight());
+			}
 		}
 		
 		boolean hasChange = false;
 		
 		if (widthMode==MeasureSpec.UNSPECIFIED && widthSize<=0) {
-			widthSize = Math.max(contentMeasuredWidth, Math.max(leftSliderMeasuredWidth, rightSliderMeasuredWidth));
+			widthSize = Math.max(contentMeasuredWidth, slidersMeasuredWidth);
 			
 			hasChange = true;
 		}
 		
 		if (heightMode==MeasureSpec.UNSPECIFIED && heightSize<=0) {
-			heightSize = Math.max(contentMeasuredHeight, Math.max(leftSliderMeasuredHeight, rightSliderMeasuredHeight));
+			heightSize = Math.max(contentMeasuredHeight, slidersMeasuredHeight);
 			
 			hasChange = true;
 		}
@@ -212,17 +560,24 @@ public class SliderLayout extends ViewGroup {
 			heightSpec = MeasureSpec.makeMeasureSpec(heightSize, MeasureSpec.EXACTLY);
 			
 			if (mContent!=null) {
-				mContent.measure(widthSpec, heightSpec);
-			}
-			
-			if (mLeftSlider!=null) {
-				measureSlider(mLeftSlider, widthSpec, heightSpec, widthSize, heightSize);
+				measureChildIfNeeded(mContent, widthSpec, heightSpec);
 			}
 			
-			if (mRightSlider!=null) {
-				measureSlider(mRightSlider, widthSpec, heightSpec, widthSize, heightSize);
+			for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+				View slider = mActiveSliders[edge];
+				
+				if (slider!=null && !isSliderHidden(slider)) {
+					measureSlider(slider, widthSpec, heightSpec, widthSize, heightSize);
+				}
 			}
 		}
+
+		// Kept so a lazily created slider can be measured right away.
+		mHasChildSpecs = true;
+		mChildWidthSpec = widthSpec;
+		mChildHeightSpec = heightSpec;
+		mChildWidthSize = widthSize;
+		mChildHeightSize = heightSize;
 		
 		setMeasuredDimension(widthSize, heightSize);
 	}
@@ -244,727 +599,1991 @@ public class SliderLayout extends ViewGroup {
 			heightSpec = MeasureSpec.makeMeasureSpec(params.height, MeasureSpec.EXACTLY);
 		}
 
-		slider.measure(widthSpec, heightSpec);
+		measureChildIfNeeded(slider, widthSpec, heightSpec);
+	}
+	
+	/*
+	 * Skips measuring the child if it has already been measured with the same specs and layout params and has not
+	 * requested a layout since.
+	 */
+	private void measureChildIfNeeded(View child, int widthSpec, int heightSpec) {
+		LayoutParams params = (LayoutParams) child.getLayoutParams();
+		
+		if (params.mHasMeasureCache && !child.isLayoutRequested()
+				&& params.mCachedWidthSpec==widthSpec && params.mCachedHeightSpec==heightSpec
+				&& params.mCachedWidth==params.width && params.mCachedHeight==params.height) {
+			mMeasureCacheHitCount++;
+			return;
+		}
+		
+		child.measure(widthSpec, heightSpec);
+		mChildMeasureCount++;
+		
+		params.mHasMeasureCache = true;
+		params.mCachedWidthSpec = widthSpec;
+		params.mCachedHeightSpec = heightSpec;
+		params.mCachedWidth = params.width;
+		params.mCachedHeight = params.height;
+	}
+	
+	int getChildMeasureCount() {
+		return mChildMeasureCount;
+	}
+	
+	int getMeasureCacheHitCount() {
+		return mMeasureCacheHitCount;
 	}
 
 	@Override
 	protected void onLayout(boolean changed, int l, int t, int r, int b) {
+		SliderTrace.beginSection(SliderTrace.ON_LAYOUT);
+		
+		try {
+			layoutChildren(l, t, r, b);
+		} finally {
+			SliderTrace.endSection();
+		}
+	}
+	
+	private void layoutChildren(int l, int t, int r, int b) {
 		mWidth = r - l;
 		mHeight = b - t;
 		
-		mLeftSlider = null;
-		mRightSlider = null;
-		mContent = null;
-		
-		final int childCount = getChildCount();
-		
-		if (childCount>3) {
-			throw new IllegalStateException("LayoutSlider can not have more than 3 child views.");
-		}
+		mEngine.setWidth(mWidth);
+		mEngine.setHeight(mHeight);
 		
-		for (int i=0; i<childCount; i++) {
-			View child = getChildAt(i);
-			
-			LayoutParams params = (LayoutParams) child.getLayoutParams();
+		if (mContent!=null) {
+			int left = getContentOffset(false);
+			int top = getContentOffset(true);
 			
-			switch (params.gravity) {
-			case Gravity.NO_GRAVITY:
-				mContent = child;
-				break;
-			case Gravity.LEFT:
-				mLeftSlider = child;
-				break;
-			case Gravity.RIGHT:
-				mRightSlider = child;
-				break;
-			}
+			mContent.layout(left, top, left + mWidth, top + mHeight);
 		}
 		
-		if (mContent!=null) {
-			int shift = 0;
-			
-			if (mSlideAmount>0 && (mOverSliders&Gravity.LEFT)!=Gravity.LEFT) {
-				shift = (int) mSlideAmount;
-			}
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			View slider = mActiveSliders[edge];
 			
-			if (mSlideAmount<0 && (mOverSliders&Gravity.RIGHT)!=Gravity.RIGHT) {
-				shift = (int) mSlideAmount;
+			if (slider!=null && !isSliderHidden(slider)) {
+				layoutSlider(edge, slider);
 			}
-			
-			mContent.layout(shift, 0, shift + mWidth, mHeight);
 		}
 		
-		if (mLeftSlider!=null) {
-			mLeftSlider.layout((int) mSlideAmount - mLeftSlider.getMeasuredWidth(), 0, (int) mSlideAmount, mHeight);
+		updateEngineSliders();
+	}
+	
+	/*
+	 * Measures and lays out a slider between layout passes with the specs of the last measure. Does nothing before the
+	 * first measure since that pass takes care of it.
+	 */
+	private void measureAndLayoutSlider(int edge, View slider) {
+		if (!mHasChildSpecs) {
+			return;
 		}
 		
-		if (mRightSlider!=null) {
-			mRightSlider.layout((int) mSlideAmount + mWidth, 0, (int) mSlideAmount + mWidth + mRightSlider.getMeasuredWidth(), mHeight);
+		measureSlider(slider, mChildWidthSpec, mChildHeightSpec, mChildWidthSize, mChildHeightSize);
+		
+		layoutSlider(edge, slider);
+	}
+	
+	/*
+	 * Left and right sliders take the full height and top and bottom sliders the full width.
+	 */
+	private void layoutSlider(int edge, View slider) {
+		int left = getSliderLeft(edge, slider);
+		int top = getSliderTop(edge, slider);
+		
+		if (SliderEngine.isVertical(EDGE_GRAVITIES[edge])) {
+			slider.layout(left, top, left + mWidth, top + slider.getMeasuredHeight());
+		}
+		else {
+			slider.layout(left, top, left + slider.getMeasuredWidth(), top + mHeight);
 		}
 	}
 	
-	@Override
-	public void draw(Canvas canvas) {
-		super.draw(canvas);
+	/*
+	 * Only the axis of the sliding slider moves.
+	 */
+	private int getSlideOffset(boolean vertical) {
+		int slider = mEngine.getSlidingSlider();
+		
+		if (slider==SLIDER_NO_SLIDER || SliderEngine.isVertical(slider)!=vertical) {
+			return 0;
+		}
 		
-		float max = 0;
-		boolean darken = false;
+		return (int) mEngine.getSlideAmount();
+	}
+	
+	private int getContentOffset(boolean vertical) {
+		int slider = mEngine.getSlidingSlider();
 		
-		if (mSlideAmount>0) {
-			if ((mDarkeningSliders&Gravity.LEFT)==Gravity.LEFT) {
-				darken = true;
-			}
-			
-			max = mLeftSlider.getWidth();
+		if (slider!=SLIDER_NO_SLIDER && (mOverSliders&slider)==slider) {
+			return 0;
 		}
 		
-		if (mSlideAmount<0) {
-			if ((mDarkeningSliders&Gravity.RIGHT)==Gravity.RIGHT) {
-				darken = true;
-			}
-			
-			max = mRightSlider.getWidth();
+		return getSlideOffset(vertical);
+	}
+	
+	private int getSliderLeft(int edge, View slider) {
+		switch (edge) {
+		case SliderEngine.EDGE_LEFT:
+			return getSlideOffset(false) - slider.getMeasuredWidth();
+		case SliderEngine.EDGE_RIGHT:
+			return getSlideOffset(false) + mWidth;
+		default:
+			return 0;
 		}
-		
-		if (darken) {
-			int darkeningAmount = max==0?0:(int) (MAXIMUM_DARKNESS*(Math.abs(mSlideAmount)/max));
-			mDarkenerPaint.setAlpha(darkeningAmount);
-			
-			canvas.drawRect(mSlideAmount, 0, mSlideAmount + mWidth, mHeight, mDarkenerPaint);
+	}
+	
+	private int getSliderTop(int edge, View slider) {
+		switch (edge) {
+		case SliderEngine.EDGE_TOP:
+			return getSlideOffset(true) - slider.getMeasuredHeight();
+		case SliderEngine.EDGE_BOTTOM:
+			return getSlideOffset(true) + mHeight;
+		default:
+			return 0;
 		}
 	}
 
-	@Override
-	public boolean dispatchKeyEventPreIme(KeyEvent event) {
-		if (event.getKeyCode()==KeyEvent.KEYCODE_BACK && mOpenSlider!=Gravity.NO_GRAVITY) {
-			flyClose();
-			return true;
+	/*
+	 * Called whenever the slide amount changes. In SLIDE_MODE_OFFSET the children are only moved by an offset which does not
+	 * invalidate their display lists nor run a measure/layout pass. SLIDE_MODE_LAYOUT is kept as a fallback.
+	 */
+	private void onSlideAmountChanged() {
+		if (mSlideMode==SLIDE_MODE_LAYOUT) {
+			requestLayout();
+		}
+		else {
+			offsetChildren();
 		}
 		
-		return false;
-	};
+		if (mDarkeningMode==DARKENING_MODE_TINT) {
+			updateContentTint();
+		}
+		
+		invalidate();
+	}
 	
-	@Override
-	public boolean onInterceptTouchEvent(MotionEvent ev) {
-		switch (mState) {
-		case STATE_IDLE:
-			boolean result = mInterceptGestureDetector.onTouchEvent(ev);
-			boolean actionIsDown = ev.getAction()==MotionEvent.ACTION_DOWN;
-
-			switch (mOpenSlider) {
-			case Gravity.NO_GRAVITY:
-				if ((mLeftSlider!=null && ev.getX()<mSensitiveAreaWidth)
-						|| (mRightSlider!=null && ev.getX()>mWidth - mSensitiveAreaWidth)) {
-					return actionIsDown?false:result;
-				}
-				break;
-			case Gravity.LEFT:
-				if (ev.getX()>mSlideAmount) {
-					return true;
-				}
-				break;
-			case Gravity.RIGHT:
-				if (ev.getX()<mWidth + mSlideAmount) {
-					return true;
-				}
-				break;
-			}
+	private void offsetChildren() {
+		if (mContent!=null) {
+			offsetChild(mContent, getContentOffset(false), getContentOffset(true));
+		}
+		
+		// Inactive sliders are hidden and stay where they were laid out.
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			View slider = mActiveSliders[edge];
 			
-			return false;
-		case STATE_SCROLLING:
-		case STATE_FLYING:
-		default:
-			return true;
+			if (slider!=null) {
+				offsetChild(slider, getSliderLeft(edge, slider), getSliderTop(edge, slider));
+			}
 		}
 	}
 	
-	private OnGestureListener mInterceptGestureListener = new OnGestureListener() {
+	private static void offsetChild(View child, int left, int top) {
+		int offsetX = left - child.getLeft();
+		int offsetY = top - child.getTop();
 		
-		@Override
-		public boolean onSingleTapUp(MotionEvent e) {
-			return false;
+		if (offsetX!=0) {
+			child.offsetLeftAndRight(offsetX);
 		}
 		
-		@Override
-		public void onShowPress(MotionEvent e) { }
-		
-		@Override
-		public boolean onScroll(MotionEvent ev, MotionEvent e2, float distanceX, float distanceY) {
-			if (Math.abs(distanceY)>Math.abs(distanceX)) {
-				return false;
+		if (offsetY!=0) {
+			child.offsetTopAndBottom(offsetY);
+		}
+	}
+	
+	@Override
+	public void draw(Canvas canvas) {
+		SliderTrace.beginSection(SliderTrace.DRAW);
+		
+		try {
+			super.draw(canvas);
+			
+			drawDarkening(canvas);
+		} finally {
+			SliderTrace.endSection();
+		}
+	}
+	
+	private void drawDarkening(Canvas canvas) {
+		int darkness = computeDarkness();
+		
+		if (darkness==0 || isContentTinted()) {
+			return;
+		}
+		
+		mDarkenerPaint.setAlpha(darkness);
+		
+		// Only the part of the content that is not under the slider is darkened.
+		canvas.drawRect(computeUncoveredRect(), mDarkenerPaint);
+	}
+	
+	/*
+	 * Returns the part of the layout that the sliding slider does not cover. The rect is reused.
+	 */
+	private RectF computeUncoveredRect() {
+		RectF rect = mUncoveredRect;
+		float slideAmount = mEngine.getSlideAmount();
+		
+		rect.set(0, 0, mWidth, mHeight);
+		
+		switch (mEngine.getSlidingSlider()) {
+		case Gravity.LEFT:
+			rect.left = slideAmount;
+			break;
+		case Gravity.RIGHT:
+			rect.right = mWidth + slideAmount;
+			break;
+		case Gravity.TOP:
+			rect.top = slideAmount;
+			break;
+		case Gravity.BOTTOM:
+			rect.bottom = mHeight + slideAmount;
+			break;
+		}
+		
+		return rect;
+	}
+
+	/*
+	 * An opaque over slider hides the content under it, so the content is clipped to the part that is still visible and
+	 * not drawn at all when it is fully covered.
+	 */
+	@Override
+	protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+		int slider = mEngine.getSlidingSlider();
+		
+		if (child!=mContent || mEngine.getSlideAmount()==0
+				|| (mOverSliders&slider)!=slider || !isOpaque(getSlider(slider))) {
+			return super.drawChild(canvas, child, drawingTime);
+		}
+		
+		RectF clip = computeUncoveredRect();
+		
+		if (clip.isEmpty()) {
+			return false;
+		}
+		
+		int saveCount = canvas.save();
+		canvas.clipRect(clip);
+
+		boolean result = super.drawChild(canvas, child, drawingTime);
+		
+		canvas.restoreToCount(saveCount);
+		
+		return result;
+	}
+	
+	private static boolean isOpaque(View slider) {
+		return slider!=null && ((LayoutParams) slider.getLayoutParams()).opaque;
+	}
+	
+	private int computeDarkness() {
+		float slideAmount = mEngine.getSlideAmount();
+		int slider = mEngine.getSlidingSlider();
+		
+		if (slideAmount==0 || (mDarkeningSliders&slider)!=slider) {
+			return 0;
+		}
+		
+		float max = mEngine.getSliderSize(slider);
+		
+		if (max<=0) {
+			return 0;
+		}
+
+		float ratio = Math.min(1, Math.abs(slideAmount)/max);
+		
+		if (mDarkeningInterpolator!=null) {
+			ratio = mDarkeningInterpolator.getInterpolation(ratio);
+		}
+		
+		return Math.max(0, Math.min(255, (int) (mMaximumDarkness*ratio)));
+	}
+	
+	private boolean isContentTinted() {
+		return mContent!=null && ((LayoutParams) mContent.getLayoutParams()).mIsTinted;
+	}
+	
+	/*
+	 * In DARKENING_MODE_TINT the content is darkened through the paint of its hardware layer instead of drawing a rect
+	 * over it. Needs setLayerPaint from API 17. Falls back to drawing when the content has a layer type of its own.
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+	private void updateContentTint() {
+		if (mContent==null) {
+			return;
+		}
+		
+		LayoutParams params = (LayoutParams) mContent.getLayoutParams();
+		
+		int darkness = computeDarkness();
+		
+		if (darkness==0) {
+			if (params.mIsTinted) {
+				params.mIsTinted = false;
+				
+				mContent.setLayerType(params.mHasPromotedLayer?View.LAYER_TYPE_HARDWARE:View.LAYER_TYPE_NONE, null);
 			}
+			return;
+		}
+		
+		if (!params.mIsTinted && mContent.getLayerType()!=View.LAYER_TYPE_NONE && !params.mHasPromotedLayer) {
+			return;
+		}
+		
+		if (mTintPaint==null) {
+			mTintPaint = new Paint();
+			mTintFilters = new LightingColorFilter[256];
+		}
+		
+		// Filters are cached per darkness level so sliding does not allocate once every level has been used.
+		LightingColorFilter filter = mTintFilters[darkness];
+		
+		if (filter==null) {
+			int multiply = 255 - darkness;
+			int red = ((mDarkeningColor>>16)&0xff)*darkness/255;
+			int green = ((mDarkeningColor>>8)&0xff)*darkness/255;
+			int blue = (mDarkeningColor&0xff)*darkness/255;
 			
-			switch (mOpenSlider) {
-			case Gravity.NO_GRAVITY:
-				if ((mLeftSlider!=null && ev.getX()<mSensitiveAreaWidth)
-						|| (mRightSlider!=null && ev.getX()>mWidth - mSensitiveAreaWidth)) {
-					return true;
+			filter = new LightingColorFilter((multiply<<16) | (multiply<<8) | multiply, (red<<16) | (green<<8) | blue);
+			mTintFilters[darkness] = filter;
+		}
+		
+		mTintPaint.setColorFilter(filter);
+		
+		if (params.mIsTinted) {
+			mContent.setLayerPaint(mTintPaint);
+		}
+		else {
+			params.mIsTinted = true;
+			
+			mContent.setLayerType(View.LAYER_TYPE_HARDWARE, mTintPaint);
+		}
+	}
+
+	@Override
+	public boolean dispatchKeyEventPreIme(KeyEvent event) {
+		if (event.getKeyCode()==KeyEvent.KEYCODE_BACK && mEngine.getOpenSlider()!=Gravity.NO_GRAVITY) {
+			mEngine.flyClose();
+			return true;
+		}
+		
+		return false;
+	};
+	
+	@Override
+	public boolean onInterceptTouchEvent(MotionEvent ev) {
+		SliderTrace.beginSection(SliderTrace.ON_INTERCEPT_TOUCH_EVENT);
+		
+		try {
+			return interceptTouchEvent(ev);
+		} finally {
+			SliderTrace.endSection();
+		}
+	}
+	
+	private boolean interceptTouchEvent(MotionEvent ev) {
+		if (ev.getActionMasked()==MotionEvent.ACTION_DOWN) {
+			mIsGestureClaimed = false;
+			
+			if (mMetricsTracker!=null) {
+				mMetricsTracker.onTouchDown(ev.getEventTime());
+			}
+		}
+		else if (mIsGestureClaimed) {
+			return false;
+		}
+		
+		switch (mEngine.getState()) {
+		case STATE_IDLE:
+			prepareSliders(ev);
+			
+			switch (ev.getActionMasked()) {
+			case MotionEvent.ACTION_DOWN:
+				startTracking(ev);
+				
+				if (canHandleDown(ev.getX(), ev.getY())) {
+					claimGesture();
 				}
-				break;
-			case Gravity.LEFT:
-				if (ev.getX()>mSlideAmount) {
-					return true;
+				
+				return mEngine.isOverContent(ev.getX(), ev.getY());
+			case MotionEvent.ACTION_MOVE:
+				if (!mTouchTracker.isTracking()) {
+					return false;
 				}
-				break;
-			case Gravity.RIGHT:
-				if (ev.getX()<mWidth + mSlideAmount) {
+				
+				trackMove(ev);
+				
+				float downX = mTouchTracker.getDownX();
+				float downY = mTouchTracker.getDownY();
+				
+				if (mEngine.isOverContent(mTouchTracker.getX(), mTouchTracker.getY())
+						|| (mTouchTracker.isDragging() && mEngine.getEdgeAt(downX, downY)!=Gravity.NO_GRAVITY)) {
+					// The rest of the stream comes to onTouchEvent without a down.
+					mEngine.onTouchDown(downX, downY);
+					startNestedDrag();
 					return true;
 				}
-				break;
+				return false;
+			case MotionEvent.ACTION_POINTER_DOWN:
+				onPointerDown(ev);
+				return false;
+			case MotionEvent.ACTION_POINTER_UP:
+				onPointerUp(ev);
+				return false;
+			case MotionEvent.ACTION_UP:
+			case MotionEvent.ACTION_CANCEL:
+				mTouchTracker.reset();
+				return false;
 			}
 			
 			return false;
+		case STATE_SCROLLING:
+			// The nested child keeps the gesture and hands the scroll over.
+			return !mIsNestedSliding;
+		case STATE_FLYING:
+		default:
+			if (ev.getActionMasked()==MotionEvent.ACTION_DOWN) {
+				claimGesture();
+			}
+			return true;
 		}
+	}
+	
+	private boolean canHandleDown(float x, float y) {
+		int edge = mEngine.getEdgeAt(x, y);
 		
-		@Override
-		public void onLongPress(MotionEvent e) { }
-		
-		@Override
-		public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
-			return false;
+		return (edge!=Gravity.NO_GRAVITY && !mEngine.isLocked(edge)) || mEngine.isOverContent(x, y);
+	}
+	
+	/*
+	 * The innermost SliderLayout that can handle a down takes the gesture. SliderLayouts around it see the down before it
+	 * does and then skip the rest of the stream, instead of tracking it and competing for it.
+	 */
+	private void claimGesture() {
+		ViewParent parent = getParent();
+		
+		while (parent!=null) {
+			if (parent instanceof SliderLayout) {
+				((SliderLayout) parent).onGestureClaimed();
+			}
+			
+			parent = parent.getParent();
 		}
+	}
+	
+	/*
+	 * Undoes what the down prepared here, since the rest of the stream is skipped.
+	 */
+	private void onGestureClaimed() {
+		mIsGestureClaimed = true;
 		
-		@Override
-		public boolean onDown(MotionEvent ev) {
-			return true;
-		}
+		mTouchTracker.reset();
 		
-	};
+		if (mEngine.getState()==STATE_IDLE) {
+			demoteHardwareLayers();
+			hideClosedSliders();
+		}
+	}
 	
 	@SuppressLint("ClickableViewAccessibility")
 	@Override
 	public boolean onTouchEvent(MotionEvent event) {
-		if (mState==STATE_FLYING) {
+		SliderTrace.beginSection(SliderTrace.ON_TOUCH_EVENT);
+		
+		try {
+			return handleTouchEvent(event);
+		} finally {
+			SliderTrace.endSection();
+		}
+	}
+	
+	private boolean handleTouchEvent(MotionEvent event) {
+		if (mEngine.getState()==STATE_FLYING) {
+			if (!mEngine.catchesFlyingSliders() || event.getActionMasked()!=MotionEvent.ACTION_DOWN) {
+				return true;
+			}
+			
+			mEngine.catchFly();
+			
+			// The slider is already moving so the drag starts without waiting for the slop.
+			startTracking(event);
+			mTouchTracker.startDrag();
+			startNestedDrag();
 			return true;
 		}
 		
-		switch (event.getAction()) {
+		switch (event.getActionMasked()) {
 		case MotionEvent.ACTION_DOWN:
+			startTracking(event);
+			startNestedDrag();
+			
+			return mEngine.onTouchDown(event.getX(), event.getY());
 		case MotionEvent.ACTION_MOVE:
-			if (!mIsTouchDown) {
-				event.setAction(MotionEvent.ACTION_DOWN);
+			if (!mTouchTracker.isTracking()) {
+				// A stream without a down. Its first move is taken as the down.
+				startTracking(event);
+				startNestedDrag();
+				
+				return mEngine.onTouchDown(event.getX(), event.getY());
 			}
-			return mGestureDetector.onTouchEvent(event);
-		default:
-			boolean result = mGestureDetector.onTouchEvent(event);
+			
+			trackMove(event);
+			
+			if (mTouchTracker.isDragging()) {
+				drag(mTouchTracker.consumeDelta(predictMotion(event)));
+			}
+			return true;
+		case MotionEvent.ACTION_UP:
+			trackMove(event);
+			
+			if (mTouchTracker.isDragging()) {
+				// Lands the slider on the finger, taking back any prediction.
+				drag(mTouchTracker.consumeDelta());
+				
+				float velocity = mTouchTracker.computeVelocity();
+				
+				if (Math.abs(velocity)>=mMinimumFlingVelocity) {
+					fling(Math.max(-mMaximumFlingVelocity, Math.min(velocity, mMaximumFlingVelocity)));
+				}
+			}
+			
+			onUp(event);
+			return true;
+		case MotionEvent.ACTION_POINTER_DOWN:
+			onPointerDown(event);
+			return true;
+		case MotionEvent.ACTION_POINTER_UP:
+			onPointerUp(event);
+			return true;
+		case MotionEvent.ACTION_CANCEL:
 			onUp(event);
-			return result;
+			return true;
 		}
+		
+		return true;
 	}
 	
-	private OnGestureListener mOnSlideListener = new OnGestureListener() {
+	/*
+	 * The slider that the gesture would drag decides the axis it is tracked along.
+	 */
+	private void startTracking(MotionEvent event) {
+		float x = event.getX();
+		float y = event.getY();
 		
-		@Override
-		public boolean onSingleTapUp(MotionEvent e) {
-			return false;
+		mDragSlider = mEngine.getDragSlider(x, y);
+		
+		mTouchTracker.onDown(event.getPointerId(0), x, y, event.getEventTime(), SliderEngine.isVertical(mDragSlider));
+	}
+	
+	private void startNestedDrag() {
+		if (Build.VERSION.SDK_INT>=Build.VERSION_CODES.LOLLIPOP) {
+			startNestedScroll(mTouchTracker.isVertical()?SCROLL_AXIS_VERTICAL:SCROLL_AXIS_HORIZONTAL);
 		}
+	}
+	
+	private void trackMove(MotionEvent event) {
+		int index = event.findPointerIndex(mTouchTracker.getPointerId());
 		
-		@Override
-		public void onShowPress(MotionEvent e) { }
+		if (index<0) {
+			return;
+		}
 		
-		@Override
-		public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
-			if (e1==null) {
-				e1 = e2;
-			}
+		if (mUsesHistoricalTouchSamples) {
+			int historySize = event.getHistorySize();
 			
-			if (!mIsTouchDown) {
-				mIsTouchDown = true;
-				return true;
+			for (int i=0; i<historySize; i++) {
+				mTouchTracker.onMove(event.getHistoricalX(index, i), event.getHistoricalY(index, i),
+						event.getHistoricalEventTime(i));
 			}
+		}
+		
+		mTouchTracker.onMove(event.getX(index), event.getY(index), event.getEventTime());
+	}
+	
+	/*
+	 * Moves the slider with the drag. A nested scrolling parent gets to scroll first and gets what the slider does not
+	 * use.
+	 */
+	private void drag(float delta) {
+		if (delta==0) {
+			return;
+		}
+		
+		if (Build.VERSION.SDK_INT>=Build.VERSION_CODES.LOLLIPOP && hasNestedScrollingParent()) {
+			dragNested(delta);
+			return;
+		}
+		
+		mEngine.onTouchScroll(mDragSlider, delta);
+	}
+	
+	/*
+	 * Scroll deltas are the opposite of finger movement and are along the axis of the drag. If the parent moves this
+	 * layout the touch coordinates shift by as much, which is taken out of the tracker.
+	 */
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	private void dragNested(float delta) {
+		int[] consumed = mNestedConsumed;
+		int[] offset = mNestedOffset;
+		
+		boolean vertical = mTouchTracker.isVertical();
+		int scroll = -Math.round(delta);
+		
+		consumed[0] = 0;
+		consumed[1] = 0;
+		
+		if (dispatchNestedPreScroll(vertical?0:scroll, vertical?scroll:0, consumed, offset)) {
+			delta += consumed[vertical?1:0];
 			
-			requestDisallowInterceptTouchEvent(true);
-			
-			mState = STATE_SCROLLING;
-			
-			mSlideAmount += -distanceX;
-			
-			if (mSlidingSlider==Gravity.NO_GRAVITY) {
-				if (mSlideAmount>0) {
-					if (mLeftSlider!=null && e1.getX()<mWidth/2 && (mLockedSliders&Gravity.LEFT)!=Gravity.LEFT) {
-						mSlidingSlider = Gravity.LEFT;
-						
-						if (mSliderListener!=null) {
-							mSliderListener.onStateChanged(STATE_SCROLLING, mSlidingSlider);
-						}
-					}
-				}
-				else {
-					if (mRightSlider!=null && e1.getX()>mWidth/2 && (mLockedSliders&Gravity.RIGHT)!=Gravity.RIGHT) {
-						mSlidingSlider = Gravity.RIGHT;
-						
-						if (mSliderListener!=null) {
-							mSliderListener.onStateChanged(STATE_SCROLLING, mSlidingSlider);
-						}
-					}
-				}
-			}
-
-			switch (mSlidingSlider) {
-			case Gravity.NO_GRAVITY:
-				mSlideAmount = 0;
-				break;
-			case Gravity.LEFT:
-				if (mSlideAmount>mLeftSlider.getWidth()) {
-					mSlideAmount = mLeftSlider.getWidth();
-				}
-				
-				if (mSlideAmount<0) {
-					mSlideAmount = 0;
-				}
-				
-				if (mSliderListener!=null) {
-					mSliderListener.onScrollChanged(mSlideAmount/mLeftSlider.getWidth(), mSlidingSlider);
-				}
-				break;
-			case Gravity.RIGHT:
-				if (mSlideAmount<-mRightSlider.getWidth()) {
-					mSlideAmount = -mRightSlider.getWidth();
-				}
-				
-				if (mSlideAmount>0) {
-					mSlideAmount = 0;
-				}
-				
-				if (mSliderListener!=null) {
-					mSliderListener.onScrollChanged(-mSlideAmount/mRightSlider.getWidth(), mSlidingSlider);
+			mTouchTracker.offsetLocation(-offset[0], -offset[1]);
+		}
+		
+		float slideAmount = mEngine.getSlideAmount();
+		
+		if (delta!=0) {
+			mEngine.onTouchScroll(mDragSlider, delta);
+		}
+		
+		float slid = mEngine.getSlideAmount() - slideAmount;
+		int slidScroll = -Math.round(slid);
+		int unconsumed = -Math.round(delta - slid);
+		
+		if (unconsumed!=0 && dispatchNestedScroll(vertical?0:slidScroll, vertical?slidScroll:0,
+				vertical?0:unconsumed, vertical?unconsumed:0, offset)) {
+			mTouchTracker.offsetLocation(-offset[0], -offset[1]);
+		}
+	}
+	
+	private void fling(float velocity) {
+		if (Build.VERSION.SDK_INT<Build.VERSION_CODES.LOLLIPOP || !hasNestedScrollingParent()) {
+			mEngine.onTouchFling(velocity);
+			return;
+		}
+		
+		float velocityX = mTouchTracker.isVertical()?0:-velocity;
+		float velocityY = mTouchTracker.isVertical()?-velocity:0;
+		
+		if (!dispatchNestedPreFling(velocityX, velocityY)) {
+			dispatchNestedFling(velocityX, velocityY, mEngine.onTouchFling(velocity));
+		}
+	}
+	
+	/*
+	 * The last pointer to go down drives the drag.
+	 */
+	private void onPointerDown(MotionEvent event) {
+		if (!mTouchTracker.isTracking()) {
+			return;
+		}
+		
+		int index = event.getActionIndex();
+		
+		mTouchTracker.switchPointer(event.getPointerId(index), event.getX(index), event.getY(index));
+	}
+	
+	/*
+	 * Hands the drag over to another pointer if the one driving it goes up.
+	 */
+	private void onPointerUp(MotionEvent event) {
+		int index = event.getActionIndex();
+		
+		if (event.getPointerId(index)!=mTouchTracker.getPointerId()) {
+			return;
+		}
+		
+		int newIndex = index==0?1:0;
+		
+		mTouchTracker.switchPointer(event.getPointerId(newIndex), event.getX(newIndex), event.getY(newIndex));
+	}
+	
+	/*
+	 * Returns how far ahead of the pointer the drag should be drawn, which is where the predictor expects the pointer to
+	 * be when the next frame is shown.
+	 */
+	private float predictMotion(MotionEvent event) {
+		if (mMotionPredictor==null) {
+			return 0;
+		}
+		
+		long latency = SystemClock.uptimeMillis() - event.getEventTime() + mFrameIntervalMillis;
+		float position = mTouchTracker.getPosition();
+		
+		return mMotionPredictor.predict(position, mTouchTracker.computeVelocity(), latency) - position;
+	}
+	
+	private void onUp(MotionEvent e) {
+		// The pointer that goes up last is not necessarily the first one in the event.
+		float x = mTouchTracker.isTracking()?mTouchTracker.getX():e.getX();
+		float y = mTouchTracker.isTracking()?mTouchTracker.getY():e.getY();
+		
+		mTouchTracker.reset();
+		
+		if (Build.VERSION.SDK_INT>=Build.VERSION_CODES.LOLLIPOP) {
+			stopNestedScroll();
+		}
+		
+		requestDisallowInterceptTouchEvent(false);
+		
+		if (mEngine.getState()==STATE_IDLE) {
+			demoteHardwareLayers();
+		}
+		
+		mEngine.onTouchUp(x, y);
+		
+		hideClosedSliders();
+	}
+	
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public boolean onStartNestedScroll(View child, View target, int nestedScrollAxes) {
+		if (!mSlidesOnNestedScroll || mEngine.getState()==STATE_FLYING) {
+			return false;
+		}
+		
+		return ((nestedScrollAxes & SCROLL_AXIS_HORIZONTAL)!=0 && hasSliders(false))
+				|| ((nestedScrollAxes & SCROLL_AXIS_VERTICAL)!=0 && hasSliders(true));
+	}
+	
+	private boolean hasSliders(boolean vertical) {
+		if (vertical) {
+			return mEngine.hasSlider(Gravity.TOP) || mEngine.hasSlider(Gravity.BOTTOM);
+		}
+		
+		return mEngine.hasSlider(Gravity.LEFT) || mEngine.hasSlider(Gravity.RIGHT);
+	}
+	
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public void onNestedScrollAccepted(View child, View target, int axes) {
+		super.onNestedScrollAccepted(child, target, axes);
+		
+		mIsNestedSliding = true;
+		mEngine.onDragStart();
+		
+		startNestedScroll(axes);
+	}
+	
+	/*
+	 * A slider that the nested scroll has already moved takes the scroll before the child does. The rest is offered to
+	 * the parent.
+	 */
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public void onNestedPreScroll(View target, int dx, int dy, int[] consumed) {
+		int consumedX = 0;
+		int consumedY = 0;
+		
+		if (mEngine.getState()==STATE_SCROLLING && mEngine.getSlideAmount()!=0) {
+			if (SliderEngine.isVertical(mEngine.getSlidingSlider())) {
+				consumedY = -Math.round(slideNested(true, -dy));
+			}
+			else {
+				consumedX = -Math.round(slideNested(false, -dx));
+			}
+		}
+		
+		int[] parentConsumed = mNestedConsumed;
+		
+		parentConsumed[0] = 0;
+		parentConsumed[1] = 0;
+		
+		dispatchNestedPreScroll(dx - consumedX, dy - consumedY, parentConsumed, null);
+		
+		consumed[0] = consumedX + parentConsumed[0];
+		consumed[1] = consumedY + parentConsumed[1];
+	}
+	
+	/*
+	 * What the child could not scroll moves the slider. The rest is offered to the parent.
+	 */
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public void onNestedScroll(View target, int dxConsumed, int dyConsumed, int dxUnconsumed, int dyUnconsumed) {
+		int consumedX = 0;
+		int consumedY = 0;
+		
+		if (dxUnconsumed!=0) {
+			consumedX = -Math.round(slideNested(false, -dxUnconsumed));
+		}
+		
+		if (dyUnconsumed!=0) {
+			consumedY = -Math.round(slideNested(true, -dyUnconsumed));
+		}
+		
+		dispatchNestedScroll(dxConsumed + consumedX, dyConsumed + consumedY, dxUnconsumed - consumedX,
+				dyUnconsumed - consumedY, null);
+	}
+	
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public boolean onNestedPreFling(View target, float velocityX, float velocityY) {
+		if (mEngine.getState()==STATE_SCROLLING && mEngine.getSlideAmount()!=0) {
+			return mEngine.onTouchFling(SliderEngine.isVertical(mEngine.getSlidingSlider())?-velocityY:-velocityX);
+		}
+		
+		return dispatchNestedPreFling(velocityX, velocityY);
+	}
+	
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public boolean onNestedFling(View target, float velocityX, float velocityY, boolean consumed) {
+		return dispatchNestedFling(velocityX, velocityY, consumed);
+	}
+	
+	@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+	@Override
+	public void onStopNestedScroll(View target) {
+		super.onStopNestedScroll(target);
+		
+		if (mIsNestedSliding) {
+			mIsNestedSliding = false;
+			
+			mEngine.onDragEnd();
+			
+			hideClosedSliders();
+		}
+		
+		stopNestedScroll();
+	}
+	
+	/*
+	 * Returns the movement the slider took along the axis. The slider that is not open yet is picked by the direction.
+	 */
+	private float slideNested(boolean vertical, float delta) {
+		if (!mIsNestedSliding) {
+			return 0;
+		}
+		
+		int slider = mEngine.getSlidingSlider();
+		
+		if (slider==SLIDER_NO_SLIDER) {
+			if (vertical) {
+				slider = delta>0?Gravity.TOP:Gravity.BOTTOM;
+			}
+			else {
+				slider = delta>0?Gravity.LEFT:Gravity.RIGHT;
+			}
+			
+			ensureSlider(slider);
+		}
+		else if (SliderEngine.isVertical(slider)!=vertical) {
+			return 0;
+		}
+		
+		float slideAmount = mEngine.getSlideAmount();
+		
+		mEngine.onTouchScroll(slider, delta);
+		
+		return mEngine.getSlideAmount() - slideAmount;
+	}
+	
+	/**
+	 * Replaces the listener that was set by the previous call to this method. Listeners added through
+	 * {@link #addSliderListener(SliderListener)} are not affected, even when the same listener is also set here.
+	 */
+	public void setSliderListener(SliderListener sliderListener) {
+		// The set listener is kept first in mSliderListeners, apart from any added registration of the same listener.
+		if (mSliderListener!=null) {
+			removeSliderListenerAt(0);
+		}
+		
+		mSliderListener = sliderListener;
+		
+		if (sliderListener!=null) {
+			insertSliderListener(0, sliderListener);
+		}
+	}
+	
+	public void addSliderListener(SliderListener sliderListener) {
+		if (sliderListener==null || indexOfSliderListener(sliderListener)!=-1) {
+			return;
+		}
+		
+		insertSliderListener(mSliderListeners.length, sliderListener);
+	}
+	
+	public void removeSliderListener(SliderListener sliderListener) {
+		int index = indexOfSliderListener(sliderListener);
+		
+		if (index!=-1) {
+			removeSliderListenerAt(index);
+		}
+	}
+	
+	private void insertSliderListener(int index, SliderListener sliderListener) {
+		SliderListener[] listeners = new SliderListener[mSliderListeners.length + 1];
+		System.arraycopy(mSliderListeners, 0, listeners, 0, index);
+		listeners[index] = sliderListener;
+		System.arraycopy(mSliderListeners, index, listeners, index + 1, mSliderListeners.length - index);
+		
+		mSliderListeners = listeners;
+	}
+	
+	private void removeSliderListenerAt(int index) {
+		if (mSliderListeners.length==1) {
+			mSliderListeners = NO_LISTENERS;
+			return;
+		}
+		
+		SliderListener[] listeners = new SliderListener[mSliderListeners.length - 1];
+		System.arraycopy(mSliderListeners, 0, listeners, 0, index);
+		System.arraycopy(mSliderListeners, index + 1, listeners, index, listeners.length - index);
+		
+		mSliderListeners = listeners;
+	}
+	
+	/*
+	 * Looks up a listener added through addSliderListener. The set listener in front is skipped.
+	 */
+	private int indexOfSliderListener(SliderListener sliderListener) {
+		for (int i=mSliderListener==null?0:1; i<mSliderListeners.length; i++) {
+			if (mSliderListeners[i]==sliderListener) {
+				return i;
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Enables trace sections around measure, layout, draw, touch handling, flies and listener dispatch for all
+	 * SliderLayouts, plus async sections for every slide and fly on API 29 and above. Disabled by default, in which case
+	 * the cost is a static field read. Needs API 18.
+	 */
+	public static void setTracingEnabled(boolean enabled) {
+		SliderTrace.setEnabled(enabled);
+	}
+	
+	/**
+	 * Reports frame timing of every slide to the listener. Costs nothing while no listener is set. Only available on API
+	 * 16 and above.
+	 */
+	public void setSlideMetricsListener(SlideMetricsListener listener) {
+		if (mMetricsTracker!=null) {
+			mMetricsTracker.cancel();
+			mMetricsTracker = null;
+		}
+		
+		if (listener!=null && Build.VERSION.SDK_INT>=Build.VERSION_CODES.JELLY_BEAN) {
+			mMetricsTracker = new SlideMetricsTracker(getContext(), listener);
+		}
+	}
+	
+	/**
+	 * When enabled, onScrollChanged calls caused by touch input are delivered at most once per display frame with the
+	 * latest ratio. State, open and close callbacks are not delayed. Only available on API 16 and above.
+	 */
+	public void setCoalescesScrollCallbacks(boolean coalesces) {
+		if (Build.VERSION.SDK_INT<Build.VERSION_CODES.JELLY_BEAN) {
+			return;
+		}
+		
+		if (!coalesces) {
+			flushPendingScrollChange();
+		}
+		else if (mScrollFrameCallback==null) {
+			mScrollFrameCallback = new ScrollFrameCallback();
+		}
+		
+		mCoalescesScrollCallbacks = coalesces;
+	}
+	
+	public boolean coalescesScrollCallbacks() {
+		return mCoalescesScrollCallbacks;
+	}
+	
+	/**
+	 * Sets a provider that creates the slider for the given gravity when it is first needed instead of at inflation.
+	 * Ignored if the edge already has a slider. The leftSliderLayout, topSliderLayout, rightSliderLayout and
+	 * bottomSliderLayout attributes do the same with a layout resource.
+	 */
+	public void setSliderProvider(int gravity, SliderProvider provider) {
+		int edge = SliderEngine.getEdgeIndex(gravity);
+		
+		if (edge!=-1 && mActiveSliders[edge]==null) {
+			mSliderProviders[edge] = provider;
+		}
+		
+		updateEngineSliders();
+		
+		schedulePrefetch();
+	}
+	
+	/**
+	 * When enabled, sliders that have a provider are created one at a time while the main thread is idle after the
+	 * layout is attached, so the first open does not pay for it.
+	 */
+	public void setPrefetchesSliders(boolean prefetchesSliders) {
+		mPrefetchesSliders = prefetchesSliders;
+		
+		if (prefetchesSliders) {
+			schedulePrefetch();
+		}
+		else {
+			cancelPrefetch();
+		}
+	}
+	
+	public boolean prefetchesSliders() {
+		return mPrefetchesSliders;
+	}
+	
+	/**
+	 * When enabled, every touch sample that was batched into a move event is used for the velocity and the touch slop
+	 * instead of only the latest one. Gives more accurate flings on high sampling rate touch screens.
+	 */
+	public void setUsesHistoricalTouchSamples(boolean usesHistoricalTouchSamples) {
+		mUsesHistoricalTouchSamples = usesHistoricalTouchSamples;
+	}
+	
+	public boolean usesHistoricalTouchSamples() {
+		return mUsesHistoricalTouchSamples;
+	}
+	
+	/**
+	 * Draws a dragged slider where the predictor expects the finger to be when the frame is shown. No prediction if
+	 * null, which is the default. The predictMotion attribute sets a {@link LinearMotionPredictor}.
+	 */
+	public void setMotionPredictor(MotionPredictor predictor) {
+		mMotionPredictor = predictor;
+	}
+	
+	public MotionPredictor getMotionPredictor() {
+		return mMotionPredictor;
+	}
+	
+	/**
+	 * When enabled, scroll that a nested scrolling child does not use moves the sliders of its axis, and a fling carries
+	 * over to them. Touches on the edges are still intercepted. Only available on API 21 and above. SliderLayout is a
+	 * nested scrolling child itself when {@link #setNestedScrollingEnabled(boolean)} is set.
+	 */
+	public void setSlidesOnNestedScroll(boolean slidesOnNestedScroll) {
+		mSlidesOnNestedScroll = slidesOnNestedScroll;
+	}
+	
+	public boolean slidesOnNestedScroll() {
+		return mSlidesOnNestedScroll;
+	}
+	
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		
+		WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+		float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+		
+		if (refreshRate>0) {
+			mFrameIntervalMillis = (long) (1000/refreshRate);
+		}
+		
+		schedulePrefetch();
+	}
+	
+	@Override
+	protected void onDetachedFromWindow() {
+		cancelPrefetch();
+		
+		if (mMetricsTracker!=null) {
+			mMetricsTracker.cancel();
+		}
+		
+		flushPendingScrollChange();
+		
+		super.onDetachedFromWindow();
+	}
+	
+	public void closeSliders() {
+		mEngine.closeSliders();
+	}
+	
+	public void closeSlider(int gravity) {
+		mEngine.closeSlider(gravity);
+	}
+	
+	public void closeSlider(int gravity, boolean animate) {
+		if (animate) {
+			mEngine.closeSlider(gravity);
+		}
+		else {
+			mEngine.closeSliderImmediately(gravity);
+		}
+	}
+	
+	public void openSlider(int gravity) {
+		if (prepareToOpen(gravity)) {
+			mEngine.openSlider(gravity);
+		}
+	}
+	
+	/**
+	 * Flies the slider to the given detent, 0 being closed and {@link #getSliderDetentCount(int)} - 1 fully open.
+	 */
+	public void openSlider(int gravity, int detent) {
+		if (prepareToOpen(gravity)) {
+			mEngine.openSlider(gravity, detent);
+		}
+	}
+	
+	/*
+	 * The detents and the fly target are taken from the slider size, so the slider is created or caught up before the
+	 * engine is asked to open it.
+	 */
+	private boolean prepareToOpen(int gravity) {
+		int slidingSlider = mEngine.getSlidingSlider();
+		
+		if (slidingSlider!=Gravity.NO_GRAVITY && slidingSlider!=gravity) {
+			return false;
+		}
+		
+		catchUpSlider(ensureSlider(gravity));
+		
+		return true;
+	}
+	
+	/**
+	 * Lets the slider rest partly open. The detents are distances in pixels from the closed position and are clamped
+	 * to the slider size. Closed and fully open are always detents. A release flies to the nearest detent and a fling
+	 * to the next one in its direction. Can only be called while the slider is closed.
+	 */
+	public void setSliderDetents(int gravity, float[] detents) {
+		mEngine.setDetents(gravity, detents);
+	}
+	
+	/**
+	 * @return Number of detents of the slider including closed and fully open.
+	 */
+	public int getSliderDetentCount(int gravity) {
+		return mEngine.getDetentCount(gravity);
+	}
+	
+	/**
+	 * @return Detent the open slider rests at, or 0 when all sliders are closed.
+	 */
+	public int getDetent() {
+		return mEngine.getDetent();
+	}
+
+	public boolean isSliderOpen(int gravity) {
+		return mEngine.getOpenSlider()==gravity;
+	}
+	
+	/**
+	 * Makes the slider the one that opens from its edge, which by default is the first slider added with that gravity.
+	 * The other sliders of the edge stay hidden. If the edge is open it is closed without animation first.
+	 */
+	public void setActiveSlider(View slider) {
+		int edge = -1;
+		
+		if (slider.getParent()==this) {
+			edge = SliderEngine.getEdgeIndex(((LayoutParams) slider.getLayoutParams()).gravity);
+		}
+		
+		if (edge==-1) {
+			throw new IllegalArgumentException("View is not a slider of this SliderLayout.");
+		}
+		
+		View previous = mActiveSliders[edge];
+		
+		if (slider==previous) {
+			return;
+		}
+		
+		mEngine.closeSliderImmediately(EDGE_GRAVITIES[edge]);
+		
+		demoteHardwareLayer(previous);
+		hideSlider(previous);
+		
+		mActiveSliders[edge] = slider;
+		
+		measureAndLayoutSlider(edge, slider);
+		
+		if (!mHidesClosedSliders) {
+			unhideSlider(slider);
+		}
+		
+		updateEngineSliders();
+	}
+	
+	/**
+	 * @return The slider that opens from the edge of the gravity, or null if there is none.
+	 */
+	public View getActiveSlider(int gravity) {
+		return getSlider(gravity);
+	}
+
+	public void setSlideMode(int slideMode) {
+		mSlideMode = slideMode;
+		
+		requestLayout();
+	}
+	
+	public int getSlideMode() {
+		return mSlideMode;
+	}
+	
+	public void setCatchesFlyingSliders(boolean catchesFlyingSliders) {
+		mEngine.setCatchesFlyingSliders(catchesFlyingSliders);
+	}
+	
+	public boolean catchesFlyingSliders() {
+		return mEngine.catchesFlyingSliders();
+	}
+	
+	/**
+	 * Flies are driven by a damped spring that starts from the release velocity.
+	 * 
+	 * @param stiffness Spring stiffness in 1/s^2.
+	 * @param dampingRatio 1 is critically damped. Smaller values overshoot, which is cut at the slider bounds.
+	 */
+	public void setFlySpring(float stiffness, float dampingRatio) {
+		mEngine.setSpring(stiffness, dampingRatio);
+	}
+	
+	public float getFlyStiffness() {
+		return mEngine.getStiffness();
+	}
+	
+	public float getFlyDampingRatio() {
+		return mEngine.getDampingRatio();
+	}
+	
+	/**
+	 * @return Settle time in milliseconds of the current or the last fly.
+	 */
+	public long getFlyDuration() {
+		return mEngine.getFlyDuration();
+	}
+	
+	/**
+	 * @param distance Distance to the target in pixels.
+	 * @param velocity Release velocity towards the target in pixels per second.
+	 * @return Time in milliseconds that a fly with the current spring settles in.
+	 */
+	public long computeFlyDuration(float distance, float velocity) {
+		return mEngine.computeFlyDuration(distance, velocity);
+	}
+	
+	public void setSliderIsOver(int gravity, boolean isOver) {
+		if (isOver) {
+			mOverSliders |= gravity;
+		}
+		else {
+			mOverSliders = removeSliders(mOverSliders, gravity);
+		}
+	}
+	
+	public void setSlidersAreOver(boolean areOver) {
+		if (areOver) {
+			mOverSliders = ALL_SLIDERS;
+		}
+		else {
+			mOverSliders = Gravity.NO_GRAVITY;
+		}
+	}
+	
+	public void setSliderDarkens(int gravity, boolean darkens) {
+		if (darkens) {
+			mDarkeningSliders |= gravity;
+		}
+		else {
+			mDarkeningSliders = removeSliders(mDarkeningSliders, gravity);
+		}
+	}
+	
+	public void setSlidersDarken(boolean darkens) {
+		if (darkens) {
+			mDarkeningSliders = ALL_SLIDERS;
+		}
+		else {
+			mDarkeningSliders = Gravity.NO_GRAVITY;
+		}
+	}
+	
+	public void setHidesClosedSliders(boolean hidesClosedSliders) {
+		mHidesClosedSliders = hidesClosedSliders;
+		
+		if (hidesClosedSliders) {
+			hideClosedSliders();
+		}
+		else {
+			for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+				showSlider(mActiveSliders[edge]);
+			}
+		}
+	}
+	
+	public boolean hidesClosedSliders() {
+		return mHidesClosedSliders;
+	}
+	
+	public void setSliderUsesHardwareLayer(int gravity, boolean usesHardwareLayer) {
+		if (usesHardwareLayer) {
+			mHardwareLayerSliders |= gravity;
+		}
+		else {
+			mHardwareLayerSliders = removeSliders(mHardwareLayerSliders, gravity);
+			
+			demoteHardwareLayers();
+		}
+	}
+	
+	public void setSlidersUseHardwareLayers(boolean useHardwareLayers) {
+		if (useHardwareLayers) {
+			mHardwareLayerSliders = ALL_SLIDERS;
+		}
+		else {
+			mHardwareLayerSliders = Gravity.NO_GRAVITY;
+			
+			demoteHardwareLayers();
+		}
+	}
+	
+	/**
+	 * @param darkeningMode {@link #DARKENING_MODE_DRAW} draws a rect over the visible content.
+	 * {@link #DARKENING_MODE_TINT} tints the content's hardware layer instead, which avoids the extra overdraw. Tinting
+	 * needs API 17, below that drawing is used.
+	 */
+	public void setDarkeningMode(int darkeningMode) {
+		if (Build.VERSION.SDK_INT<Build.VERSION_CODES.JELLY_BEAN_MR1) {
+			darkeningMode = DARKENING_MODE_DRAW;
+		}
+		
+		mDarkeningMode = darkeningMode;
+		
+		if (darkeningMode==DARKENING_MODE_TINT) {
+			updateContentTint();
+		}
+		else if (isContentTinted()) {
+			LayoutParams params = (LayoutParams) mContent.getLayoutParams();
+			
+			params.mIsTinted = false;
+			
+			mContent.setLayerType(params.mHasPromotedLayer?View.LAYER_TYPE_HARDWARE:View.LAYER_TYPE_NONE, null);
+		}
+		
+		invalidate();
+	}
+	
+	public int getDarkeningMode() {
+		return mDarkeningMode;
+	}
+	
+	public void setDarkeningColor(int color) {
+		mDarkeningColor = color;
+		
+		mDarkenerPaint.setColor(color);
+		
+		if (mTintFilters!=null) {
+			mTintFilters = new LightingColorFilter[256];
+		}
+		
+		onSlideAmountChanged();
+	}
+	
+	public int getDarkeningColor() {
+		return mDarkeningColor;
+	}
+	
+	/**
+	 * @param maximumDarkness Alpha of the darkening when a slider is fully open, from 0 to 255. Default is 128.
+	 */
+	public void setMaximumDarkness(int maximumDarkness) {
+		mMaximumDarkness = maximumDarkness;
+		
+		onSlideAmountChanged();
+	}
+	
+	public int getMaximumDarkness() {
+		return mMaximumDarkness;
+	}
+	
+	/**
+	 * @param interpolator Maps the open ratio of the slider to the ratio of the maximum darkness. Linear if null.
+	 */
+	public void setDarkeningInterpolator(TimeInterpolator interpolator) {
+		mDarkeningInterpolator = interpolator;
+		
+		onSlideAmountChanged();
+	}
+	
+	public void lockSlider(int gravity) {
+		mEngine.setLockedSliders(mEngine.getLockedSliders() | gravity);
+	}
+	
+	public void lockSliders() {
+		mEngine.setLockedSliders(ALL_SLIDERS);
+	}
+	
+	public void unlockSlider(int gravity) {
+		mEngine.setLockedSliders(removeSliders(mEngine.getLockedSliders(), gravity));
+	}
+	
+	public void unlockSliders() {
+		mEngine.setLockedSliders(Gravity.NO_GRAVITY);
+	}
+	
+	/*
+	 * Slider gravities share bits, so clearing the bits of one would clear parts of others. The sliders that stay are
+	 * added back one by one instead.
+	 */
+	private static int removeSliders(int sliders, int removed) {
+		int result = Gravity.NO_GRAVITY;
+		
+		for (int i=0; i<EDGE_GRAVITIES.length; i++) {
+			int gravity = EDGE_GRAVITIES[i];
+			
+			if ((sliders&gravity)==gravity && (removed&gravity)!=gravity) {
+				result |= gravity;
+			}
+		}
+		
+		return result;
+	}
+
+	/*
+	 * The engine owns the slide state. Everything that touches views in response to it is done here.
+	 */
+	private SliderEngine.Callback mEngineCallback = new SliderEngine.Callback() {
+		
+		@Override
+		public void onStateChanged(int state, int slider) {
+			if (state==STATE_IDLE) {
+				requestDisallowInterceptTouchEvent(false);
+			}
+			else {
+				showSlider(getSlider(mEngine.getSlidingSlider()));
+				
+				requestDisallowInterceptTouchEvent(state==STATE_SCROLLING);
+			}
+			
+			dispatchStateChanged(state, slider);
+			
+			hideClosedSliders();
+		}
+		
+		@Override
+		public void onSlideAmountChanged(float slideAmount) {
+			SliderLayout.this.onSlideAmountChanged();
+		}
+		
+		@Override
+		public void onScrollChanged(float ratio, int slider) {
+			dispatchScrollChanged(ratio, slider);
+		}
+		
+		@Override
+		public void onSliderOpened(int slider) {
+			dispatchSliderOpened(slider);
+		}
+		
+		@Override
+		public void onSliderClosed(int slider) {
+			dispatchSliderClosed(slider);
+		}
+		
+		@Override
+		public void onDetentChanged(int detent, int slider) {
+			dispatchDetentChanged(detent, slider);
+		}
+
+		@Override
+		public void onFlyStarted(long duration) {
+			SliderTrace.beginSection(SliderTrace.FLY_START);
+			
+			mFlyAnimator.start(duration);
+			
+			SliderTrace.endSection();
+		}
+		
+		@Override
+		public void onFlyCanceled() {
+			mFlyAnimator.cancel();
+		}
+		
+	};
+	
+	private FlyAnimator.Callback mFlyCallback = new FlyAnimator.Callback() {
+		
+		@Override
+		public void onFlyUpdate(long time) {
+			mEngine.onFlyFrame(time);
+		}
+		
+		@Override
+		public void onFlyEnd(long time) {
+			SliderTrace.beginSection(SliderTrace.FLY_END);
+			
+			mEngine.onFlyFrame(time);
+			
+			SliderTrace.endSection();
+		}
+		
+	};
+	
+	/*
+	 * A touch down in the edge area is likely to start a slide so the slider is made visible and its layers are built
+	 * ahead of the first move. If it does not, this is undone when the touch ends.
+	 */
+	private void prepareSliders(MotionEvent ev) {
+		switch (ev.getActionMasked()) {
+		case MotionEvent.ACTION_DOWN:
+			int edge = mEngine.getEdgeAt(ev.getX(), ev.getY());
+			
+			if (edge==Gravity.NO_GRAVITY) {
+				return;
+			}
+			
+			showSlider(ensureSlider(edge));
+			
+			if (mHardwareLayerSliders!=Gravity.NO_GRAVITY) {
+				promoteHardwareLayers(edge, true);
+			}
+			return;
+		case MotionEvent.ACTION_UP:
+		case MotionEvent.ACTION_CANCEL:
+			demoteHardwareLayers();
+			hideClosedSliders();
+			return;
+		}
+	}
+	
+	private View getSlider(int gravity) {
+		int edge = SliderEngine.getEdgeIndex(gravity);
+		
+		return edge==-1?null:mActiveSliders[edge];
+	}
+	
+	/*
+	 * Returns the slider for the gravity, creating it through its provider first if needed. A created slider is measured
+	 * and laid out closed right away so it can be dragged before the next layout pass.
+	 */
+	private View ensureSlider(int gravity) {
+		int edge = SliderEngine.getEdgeIndex(gravity);
+		
+		if (edge==-1) {
+			return null;
+		}
+		
+		SliderProvider provider = mSliderProviders[edge];
+		
+		if (mActiveSliders[edge]!=null || provider==null) {
+			return mActiveSliders[edge];
+		}
+		
+		mSliderProviders[edge] = null;
+		
+		View slider = provider.onCreateSlider(this, gravity);
+		
+		if (slider==null) {
+			return null;
+		}
+		
+		ViewGroup.LayoutParams sliderParams = slider.getLayoutParams();
+		LayoutParams params;
+		
+		if (sliderParams==null) {
+			params = (LayoutParams) generateDefaultLayoutParams();
+		}
+		else if (checkLayoutParams(sliderParams)) {
+			params = (LayoutParams) sliderParams;
+		}
+		else {
+			params = (LayoutParams) generateLayoutParams(sliderParams);
+		}
+		
+		params.gravity = gravity;
+		
+		addView(slider, params);
+		
+		ensureChildRoles();
+		
+		measureAndLayoutSlider(edge, slider);
+		
+		updateEngineSliders();
+		
+		return slider;
+	}
+	
+	private static class LayoutSliderProvider implements SliderProvider {
+		
+		private int mLayoutId;
+		
+		private LayoutSliderProvider(int layoutId) {
+			mLayoutId = layoutId;
+		}
+		
+		@Override
+		public View onCreateSlider(SliderLayout sliderLayout, int gravity) {
+			return LayoutInflater.from(sliderLayout.getContext()).inflate(mLayoutId, sliderLayout, false);
+		}
+		
+	}
+	
+	private MessageQueue.IdleHandler mPrefetchIdleHandler = new MessageQueue.IdleHandler() {
+		
+		@Override
+		public boolean queueIdle() {
+			for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+				if (mSliderProviders[edge]!=null) {
+					ensureSlider(EDGE_GRAVITIES[edge]);
+					break;
 				}
-				break;
 			}
 			
-			if (mSlidingSlider!=Gravity.NO_GRAVITY) {
-				invalidate();
-				requestLayout();
-				return true;
-			}
+			// One slider per idle pass to keep each pass short.
+			mIsPrefetchScheduled = hasSliderProviders();
 			
-			return false;
+			return mIsPrefetchScheduled;
 		}
 		
-		@Override
-		public void onLongPress(MotionEvent e) { }
+	};
+	
+	private void schedulePrefetch() {
+		if (mIsPrefetchScheduled || !mPrefetchesSliders || getWindowToken()==null) {
+			return;
+		}
 		
-		@Override
-		public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
-			if (mSlidingSlider!=Gravity.NO_GRAVITY) {
-				if (mSlidingSlider==Gravity.LEFT) {
-					if (velocityX>0) {
-						flyOpen();
-					}
-					else {
-						flyClose();
-					}
-				}
-				else if (mSlidingSlider==Gravity.RIGHT) {
-					if (velocityX>0) {
-						flyClose();
-					}
-					else {
-						flyOpen();
-					}
-				}
+		if (!hasSliderProviders()) {
+			return;
+		}
+		
+		mIsPrefetchScheduled = true;
+		
+		Looper.myQueue().addIdleHandler(mPrefetchIdleHandler);
+	}
+	
+	private boolean hasSliderProviders() {
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			if (mSliderProviders[edge]!=null) {
 				return true;
 			}
-			else {
-				return false;
-			}
 		}
 		
-		@Override
-		public boolean onDown(MotionEvent e) {
-			if (mOpenSlider==Gravity.NO_GRAVITY) {
-				float minimumX = mLeftSlider==null?0:mSensitiveAreaWidth;
-				float maximumX = mRightSlider==null?mWidth:mWidth - mSensitiveAreaWidth;
-				float x = e.getX();
-				
-				if (x>=minimumX && x<=maximumX) {
-					return false;
-				}
-			}
+		return false;
+	}
 
-			mIsTouchDown = true;
+	private void cancelPrefetch() {
+		if (mIsPrefetchScheduled) {
+			mIsPrefetchScheduled = false;
 			
-			return true;
+			Looper.myQueue().removeIdleHandler(mPrefetchIdleHandler);
 		}
-		
-	};
+	}
 	
-	private void onUp(MotionEvent e) {
-		mIsTouchDown = false;
+	/*
+	 * Closed sliders are made invisible and left out of measure and layout passes, so they are skipped by every
+	 * traversal. A slider is caught up with the last child specs when it is shown again, which needs no layout pass.
+	 */
+	private void hideClosedSliders() {
+		if (!mHidesClosedSliders || mEngine.getState()!=STATE_IDLE) {
+			return;
+		}
 		
-		requestDisallowInterceptTouchEvent(false);
+		int openSlider = mEngine.getOpenSlider();
 		
-		switch (mState) {
-		case STATE_IDLE:
-			switch (mOpenSlider) {
-			case Gravity.NO_GRAVITY:
-				break;
-			case Gravity.LEFT:
-				if (e.getX()>mSlideAmount) {
-					flyClose();
-				}
-				break;
-			case Gravity.RIGHT:
-				if (e.getX()<mWidth + mSlideAmount) {
-					flyClose();
-				}
-				break;
-			}
-			return;
-		case STATE_SCROLLING:
-			if (mSlideAmount==0) {
-				mState = STATE_IDLE;
-				
-				if (mSliderListener!=null) {
-					mSliderListener.onStateChanged(STATE_IDLE, SLIDER_NO_SLIDER);
-					mSliderListener.onSliderClosed(mSlidingSlider);
-				}
-				
-				mSlidingSlider = Gravity.NO_GRAVITY;
-				mOpenSlider = Gravity.NO_GRAVITY;
-			}
-			else if (mLeftSlider!=null && mSlideAmount==mLeftSlider.getWidth()) {
-				mState = STATE_IDLE;
-				mOpenSlider = Gravity.LEFT;
-				
-				if (mSliderListener!=null) {
-					mSliderListener.onStateChanged(STATE_IDLE, mOpenSlider);
-					mSliderListener.onSliderClosed(mOpenSlider);
-				}
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			if (EDGE_GRAVITIES[edge]!=openSlider) {
+				hideSlider(mActiveSliders[edge]);
 			}
-			else if (mRightSlider!=null && mSlideAmount==-mRightSlider.getWidth()) {
-				mState = STATE_IDLE;
-				mOpenSlider = Gravity.RIGHT;
-				
-				if (mSliderListener!=null) {
-					mSliderListener.onStateChanged(STATE_IDLE, mOpenSlider);
-					mSliderListener.onSliderClosed(mOpenSlider);
-				}
-			}
-			else {
-				flyClose();
-			}
-			return;
-		case STATE_FLYING:
+		}
+	}
+	
+	private static void hideSlider(View slider) {
+		if (slider==null || slider.getVisibility()!=View.VISIBLE) {
 			return;
 		}
+		
+		((LayoutParams) slider.getLayoutParams()).mIsHiddenWhenClosed = true;
+		
+		slider.setVisibility(View.INVISIBLE);
 	}
 	
-	public void setSliderListener(SliderListener sliderListener) {
-		mSliderListener = sliderListener;
+	private void showSlider(View slider) {
+		catchUpSlider(slider);
+		
+		unhideSlider(slider);
 	}
 	
-	public void closeSliders() {
-		if (mState==STATE_FLYING) {
+	/*
+	 * Measures and lays out a hidden slider that may have missed layout passes. The measure cache makes it cheap when
+	 * nothing has changed.
+	 */
+	private void catchUpSlider(View slider) {
+		if (slider==null || !isSliderHidden(slider)) {
 			return;
 		}
 		
-		if (mOpenSlider!=Gravity.NO_GRAVITY) {
-			flyClose();
+		int edge = SliderEngine.getEdgeIndex(((LayoutParams) slider.getLayoutParams()).gravity);
+		
+		measureAndLayoutSlider(edge, slider);
+		
+		updateEngineSliders();
+	}
+	
+	private static void unhideSlider(View slider) {
+		if (slider==null) {
+			return;
+		}
+		
+		LayoutParams params = (LayoutParams) slider.getLayoutParams();
+		
+		if (params.mIsHiddenWhenClosed) {
+			params.mIsHiddenWhenClosed = false;
+			
+			slider.setVisibility(View.VISIBLE);
 		}
 	}
 	
-	public void closeSlider(int gravity) {
-		if (mState==STATE_FLYING) {
+	private static boolean isSliderHidden(View slider) {
+		return ((LayoutParams) slider.getLayoutParams()).mIsHiddenWhenClosed;
+	}
+	
+	private void promoteHardwareLayers(int slider, boolean build) {
+		if (slider==Gravity.NO_GRAVITY || (mHardwareLayerSliders&slider)!=slider) {
 			return;
 		}
 		
-		switch (gravity) {
-		case Gravity.LEFT:
-			if (mLeftSlider!=null && mOpenSlider==gravity) {
-				flyClose();
-			}
-			break;
-		case Gravity.RIGHT:
-			if (mRightSlider!=null && mOpenSlider==gravity) {
-				flyClose();
-			}
-			break;
+		promoteHardwareLayer(getSlider(slider), build);
+		
+		if ((mOverSliders&slider)!=slider) {
+			promoteHardwareLayer(mContent, build);
 		}
 	}
 	
-	public void closeSlider(int gravity, boolean animate) {
-		if (animate) {
-			closeSlider(gravity);
+	private static void promoteHardwareLayer(View child, boolean build) {
+		if (child==null) {
 			return;
 		}
 		
-		if (mState==STATE_FLYING) {
+		LayoutParams params = (LayoutParams) child.getLayoutParams();
+		
+		// Views that already have a layer type of their own are left alone.
+		if (params.mHasPromotedLayer || child.getLayerType()!=View.LAYER_TYPE_NONE) {
 			return;
 		}
 		
-		switch (gravity) {
-		case Gravity.LEFT:
-			if (mLeftSlider!=null && mOpenSlider==gravity) {
-				closeImmediate();
-			}
-			break;
-		case Gravity.RIGHT:
-			if (mRightSlider!=null && mOpenSlider==gravity) {
-				closeImmediate();
-			}
-			break;
+		params.mHasPromotedLayer = true;
+		
+		child.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+		
+		if (build && child.getWindowToken()!=null) {
+			child.buildLayer();
 		}
 	}
 	
-	public void openSlider(int gravity) {
-		switch (gravity) {
-		case Gravity.LEFT:
-			if (mLeftSlider!=null) {
-				mSlidingSlider = gravity;
-				flyOpen();
-			}
-			break;
-		case Gravity.RIGHT:
-			if (mRightSlider!=null) {
-				mSlidingSlider = gravity;
-				flyOpen();
-			}
-			break;
+	private void demoteHardwareLayers() {
+		demoteHardwareLayer(mContent);
+		
+		for (int edge=0; edge<SliderEngine.EDGE_COUNT; edge++) {
+			demoteHardwareLayer(mActiveSliders[edge]);
 		}
 	}
 	
-	public boolean isSliderOpen(int gravity) {
-		return mOpenSlider==gravity;
-	}
-	
-	public void setSliderIsOver(int gravity, boolean isOver) {
-		if (isOver) {
-			mOverSliders |= gravity;
+	private static void demoteHardwareLayer(View child) {
+		if (child==null) {
+			return;
 		}
-		else {
-			mOverSliders &= ~gravity;
+		
+		LayoutParams params = (LayoutParams) child.getLayoutParams();
+		
+		if (params.mHasPromotedLayer) {
+			params.mHasPromotedLayer = false;
+			
+			// A tinted content keeps its layer until the tint is removed.
+			if (!params.mIsTinted) {
+				child.setLayerType(View.LAYER_TYPE_NONE, null);
+			}
 		}
 	}
 	
-	public void setSlidersAreOver(boolean areOver) {
-		if (areOver) {
-			mOverSliders = Gravity.LEFT | Gravity.RIGHT;
+	private void dispatchStateChanged(int state, int slider) {
+		if (SliderTrace.isEnabled()) {
+			traceStateChanged(state);
 		}
-		else {
-			mOverSliders = Gravity.NO_GRAVITY;
+		
+		if (mMetricsTracker!=null) {
+			switch (state) {
+			case STATE_IDLE:
+				mMetricsTracker.onSlideEnded();
+				break;
+			case STATE_SCROLLING:
+				mMetricsTracker.onFlyStopped();
+				mMetricsTracker.onSlideStarted(mEngine.getSlidingSlider(), true);
+				break;
+			case STATE_FLYING:
+				mMetricsTracker.onFlyStarted(mEngine.getSlidingSlider());
+				break;
+			}
 		}
-	}
-	
-	public void setSliderDarkens(int gravity, boolean darkens) {
-		if (darkens) {
-			mDarkeningSliders |= gravity;
+		
+		if (mHardwareLayerSliders!=Gravity.NO_GRAVITY) {
+			if (state==STATE_IDLE) {
+				demoteHardwareLayers();
+			}
+			else {
+				promoteHardwareLayers(mEngine.getSlidingSlider(), false);
+			}
 		}
-		else {
-			mDarkeningSliders &= ~gravity;
+		
+		flushPendingScrollChange();
+		
+		SliderTrace.beginSection(SliderTrace.DISPATCH_STATE_CHANGED);
+		
+		SliderListener[] listeners = mSliderListeners;
+		
+		for (int i=0; i<listeners.length; i++) {
+			listeners[i].onStateChanged(state, slider);
 		}
+		
+		SliderTrace.endSection();
 	}
 	
-	public void setSlidersDarken(boolean darkens) {
-		if (darkens) {
-			mDarkeningSliders = Gravity.LEFT | Gravity.RIGHT;
+	/*
+	 * A slide async section spans from leaving idle to getting back to idle, and a fly section spans every fly within it.
+	 */
+	private void traceStateChanged(int state) {
+		if (state!=STATE_IDLE && mSlideTraceCookie==0) {
+			mSlideTraceCookie = SliderTrace.newCookie();
+			SliderTrace.beginAsyncSection(SliderTrace.ASYNC_SLIDE, mSlideTraceCookie);
 		}
-		else {
-			mDarkeningSliders = Gravity.NO_GRAVITY;
+		
+		if (state==STATE_FLYING && mFlyTraceCookie==0) {
+			mFlyTraceCookie = SliderTrace.newCookie();
+			SliderTrace.beginAsyncSection(SliderTrace.ASYNC_FLY, mFlyTraceCookie);
 		}
-	}
-	
-	public void lockSlider(int gravity) {
-		mLockedSliders |= gravity;
 		
-		if ((mOpenSlider&mLockedSliders)!=0) {
-			flyClose();
+		if (state!=STATE_FLYING && mFlyTraceCookie!=0) {
+			SliderTrace.endAsyncSection(SliderTrace.ASYNC_FLY, mFlyTraceCookie);
+			mFlyTraceCookie = 0;
 		}
-	}
-	
-	public void lockSliders() {
-		mLockedSliders = Gravity.LEFT | Gravity.RIGHT;
 		
-		if ((mOpenSlider&mLockedSliders)!=0) {
-			flyClose();
+		if (state==STATE_IDLE && mSlideTraceCookie!=0) {
+			SliderTrace.endAsyncSection(SliderTrace.ASYNC_SLIDE, mSlideTraceCookie);
+			mSlideTraceCookie = 0;
 		}
 	}
 	
-	public void unlockSlider(int gravity) {
-		mLockedSliders &= ~gravity;
-	}
-	
-	public void unlockSliders() {
-		mLockedSliders = Gravity.NO_GRAVITY;
-	}
-	
-	private void closeImmediate() {
-		mState = STATE_IDLE;
+	/*
+	 * While coalescing, scroll changes from touch input are held until the next frame and only the latest one is
+	 * delivered. Fly updates already come once per frame so they are delivered directly.
+	 */
+	private void dispatchScrollChanged(float ratio, int slider) {
+		if (mSliderListeners.length==0) {
+			return;
+		}
 		
-		requestDisallowInterceptTouchEvent(false);
+		if (mCoalescesScrollCallbacks && mEngine.getState()==STATE_SCROLLING) {
+			mPendingScrollRatio = ratio;
+			mPendingScrollSlider = slider;
+			
+			if (!mHasPendingScrollChange) {
+				mHasPendingScrollChange = true;
+				
+				Choreographer.getInstance().postFrameCallback(mScrollFrameCallback);
+			}
+			
+			return;
+		}
 		
-		mSlideAmount = 0;
+		flushPendingScrollChange();
 		
-		if (mSliderListener!=null) {
-			mSliderListener.onStateChanged(STATE_IDLE, mSlidingSlider);
-			mSliderListener.onSliderClosed(mSlidingSlider);
-		}
+		SliderTrace.beginSection(SliderTrace.DISPATCH_SCROLL_CHANGED);
 		
-		mSlidingSlider = Gravity.NO_GRAVITY;
-		mOpenSlider = Gravity.NO_GRAVITY;
+		SliderListener[] listeners = mSliderListeners;
 		
-		requestLayout();
+		for (int i=0; i<listeners.length; i++) {
+			listeners[i].onScrollChanged(ratio, slider);
+		}
+		
+		SliderTrace.endSection();
 	}
 	
-	private void flyClose() {
-		mState = STATE_FLYING;
+	private void dispatchSliderOpened(int slider) {
+		flushPendingScrollChange();
 		
-		requestDisallowInterceptTouchEvent(false);
+		SliderTrace.beginSection(SliderTrace.DISPATCH_SLIDER_OPENED);
 		
-		if (mSliderListener!=null) {
-			mSliderListener.onStateChanged(STATE_FLYING, mSlidingSlider);
+		SliderListener[] listeners = mSliderListeners;
+		
+		for (int i=0; i<listeners.length; i++) {
+			listeners[i].onSliderOpened(slider);
 		}
 		
-		ValueAnimator animator = new ValueAnimator();
-		animator.setFloatValues(mSlideAmount, 0);
+		SliderTrace.endSection();
+	}
+	
+	private void dispatchSliderClosed(int slider) {
+		flushPendingScrollChange();
 		
-		long duration = 0;
-		switch (mSlidingSlider) {
-		case Gravity.LEFT:
-			duration = (long) (FLY_DURATION*mSlideAmount/mLeftSlider.getWidth());
-			break;
-		case Gravity.RIGHT:
-			duration = (long) (FLY_DURATION*-mSlideAmount/mRightSlider.getWidth());
-			break;
+		SliderTrace.beginSection(SliderTrace.DISPATCH_SLIDER_CLOSED);
+		
+		SliderListener[] listeners = mSliderListeners;
+		
+		for (int i=0; i<listeners.length; i++) {
+			listeners[i].onSliderClosed(slider);
 		}
-		animator.setDuration(duration);
-		animator.setInterpolator(new AccelerateDecelerateInterpolator());
 		
-		animator.addUpdateListener(new AnimatorUpdateListener() {
-			
-			@Override
-			public void onAnimationUpdate(ValueAnimator animation) {
-				mSlideAmount = (float) animation.getAnimatedValue();
-				
-				requestLayout();
-				invalidate();
-				
-				notifySlideChanged();
-			}
-			
-		});
-		animator.addListener(new AnimatorListener() {
-			
-			@Override
-			public void onAnimationStart(Animator animation) { }
-			
-			@Override
-			public void onAnimationRepeat(Animator animation) { }
-			
-			@Override
-			public void onAnimationEnd(Animator animation) {
-				mState = STATE_IDLE;
-				
-				if (mSliderListener!=null) {
-					mSliderListener.onStateChanged(STATE_IDLE, mSlidingSlider);
-					mSliderListener.onSliderClosed(mSlidingSlider);
-				}
-				
-				mSlidingSlider = Gravity.NO_GRAVITY;
-				mOpenSlider = Gravity.NO_GRAVITY;
-				mSlideAmount = 0;
-				requestLayout();
-				invalidate();
-			}
-			
-			@Override
-			public void onAnimationCancel(Animator animation) { }
-			
-		});
-		animator.start();
+		SliderTrace.endSection();
 	}
 	
-	private void flyOpen() {
-		mState = STATE_FLYING;
+	private void dispatchDetentChanged(int detent, int slider) {
+		flushPendingScrollChange();
 		
-		requestDisallowInterceptTouchEvent(false);
+		SliderTrace.beginSection(SliderTrace.DISPATCH_DETENT_CHANGED);
 		
-		if (mSliderListener!=null) {
-			mSliderListener.onStateChanged(STATE_FLYING, mSlidingSlider);
+		SliderListener[] listeners = mSliderListeners;
+		
+		for (int i=0; i<listeners.length; i++) {
+			if (listeners[i] instanceof DetentListener) {
+				((DetentListener) listeners[i]).onDetentChanged(detent, slider);
+			}
+		}
+		
+		SliderTrace.endSection();
+	}
+
+	/*
+	 * Delivers a held scroll change right away so it is never reordered with the state, open and close callbacks.
+	 */
+	private void flushPendingScrollChange() {
+		if (!mHasPendingScrollChange) {
+			return;
 		}
 		
-		ValueAnimator animator = new ValueAnimator();
-		animator.setFloatValues(mSlideAmount, mSlidingSlider==Gravity.LEFT?mLeftSlider.getWidth():-mRightSlider.getWidth());
+		mHasPendingScrollChange = false;
 		
-		long duration = FLY_DURATION;
-		switch (mSlidingSlider) {
-		case Gravity.LEFT:
-			duration = FLY_DURATION - (long) (FLY_DURATION*mSlideAmount/mLeftSlider.getWidth());
-			break;
-		case Gravity.RIGHT:
-			duration = FLY_DURATION - (long) (FLY_DURATION*-mSlideAmount/mRightSlider.getWidth());
-			break;
+		Choreographer.getInstance().removeFrameCallback(mScrollFrameCallback);
+		
+		dispatchPendingScrollChange();
+	}
+	
+	private void dispatchPendingScrollChange() {
+		SliderTrace.beginSection(SliderTrace.DISPATCH_SCROLL_CHANGED);
+		
+		SliderListener[] listeners = mSliderListeners;
+		
+		for (int i=0; i<listeners.length; i++) {
+			listeners[i].onScrollChanged(mPendingScrollRatio, mPendingScrollSlider);
 		}
-		animator.setDuration(duration);
 		
-		animator.setInterpolator(new AccelerateDecelerateInterpolator());
+		SliderTrace.endSection();
+	}
+	
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private class ScrollFrameCallback implements Choreographer.FrameCallback {
 		
-		animator.addUpdateListener(new AnimatorUpdateListener() {
-			
-			@Override
-			public void onAnimationUpdate(ValueAnimator animation) {
-				mSlideAmount = (float) animation.getAnimatedValue();
-				
-				requestLayout();
-				invalidate();
-
-				notifySlideChanged();
-			}
-			
-		});
-		animator.addListener(new AnimatorListener() {
-			
-			@Override
-			public void onAnimationStart(Animator animation) { }
-			
-			@Override
-			public void onAnimationRepeat(Animator animation) { }
-			
-			@Override
-			public void onAnimationEnd(Animator animation) {
-				mState = STATE_IDLE;
-				
-				if (mSliderListener!=null) {
-					mSliderListener.onStateChanged(STATE_IDLE, mSlidingSlider);
-				}
-				
-				mOpenSlider = mSlidingSlider;
-				
-				switch (mOpenSlider) {
-				case Gravity.LEFT:
-					mSlideAmount = mLeftSlider.getWidth();
-					break;
-				case Gravity.RIGHT:
-					mSlideAmount = -mRightSlider.getWidth();
-					break;
-				}
-				
-				if (mSliderListener!=null) {
-					mSliderListener.onSliderOpened(mOpenSlider);
-				}
-				
-				requestLayout();
-				invalidate();
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			if (!mHasPendingScrollChange) {
+				return;
 			}
 			
-			@Override
-			public void onAnimationCancel(Animator animation) { }
+			mHasPendingScrollChange = false;
 			
-		});
-		animator.start();
-	}
-	
-	private void notifySlideChanged() {
-		if (mSliderListener!=null) {
-			switch (mSlidingSlider) {
-			case Gravity.LEFT:
-				mSliderListener.onScrollChanged(mSlideAmount/mLeftSlider.getWidth(), mSlidingSlider);
-				break;
-			case Gravity.RIGHT:
-				mSliderListener.onScrollChanged(-mSlideAmount/mRightSlider.getWidth(), mSlidingSlider);
-				break;
-			}
+			dispatchPendingScrollChange();
 		}
+		
 	}
 	
 	@Override
@@ -991,14 +2610,36 @@ public class SliderLayout extends ViewGroup {
 
 		public int gravity = Gravity.NO_GRAVITY;
 		
+		/**
+		 * Declares that the child draws every pixel of its bounds. Content under an opaque over slider is not drawn.
+		 */
+		public boolean opaque = false;
+		
+		boolean mHasMeasureCache = false;
+		int mCachedWidthSpec;
+		int mCachedHeightSpec;
+		int mCachedWidth;
+		int mCachedHeight;
+		
+		boolean mHasPromotedLayer = false;
+		
+		boolean mIsHiddenWhenClosed = false;
+		
+		boolean mIsTinted = false;
+		
 		public LayoutParams(Context c, AttributeSet attrs) {
 			super(c, attrs);
 			
 			TypedArray a = c.obtainStyledAttributes(attrs, R.styleable.SliderLayout_Layout);
 			
 			for (int i=0; i<a.getIndexCount(); i++) {
-				if (a.getIndex(i)==R.styleable.SliderLayout_Layout_android_layout_gravity) {
-					gravity = a.getInt(i, Gravity.NO_GRAVITY);
+				int attr = a.getIndex(i);
+				
+				if (attr==R.styleable.SliderLayout_Layout_android_layout_gravity) {
+					gravity = a.getInt(attr, Gravity.NO_GRAVITY);
+				}
+				else if (attr==R.styleable.SliderLayout_Layout_layout_opaque) {
+					opaque = a.getBoolean(attr, false);
 				}
 			}
 			
@@ -0,0 +1,103 @@
+package com.yashoid.sliderlayout;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+import java.lang.reflect.Method;
+
+/*
+ * Systrace/Perfetto sections around SliderLayout hot paths. Disabled by default, in which case every call is a single
+ * static field read. Async sections need API 29 which is newer than the compile SDK so they are reached by reflection,
+ * which only happens while tracing is enabled.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+final class SliderTrace {
+
+	static final String ON_MEASURE = "SliderLayout#onMeasure";
+	static final String ON_LAYOUT = "SliderLayout#onLayout";
+	static final String DRAW = "SliderLayout#draw";
+	static final String ON_INTERCEPT_TOUCH_EVENT = "SliderLayout#onInterceptTouchEvent";
+	static final String ON_TOUCH_EVENT = "SliderLayout#onTouchEvent";
+	static final String FLY_START = "SliderLayout#flyStart";
+	static final String FLY_END = "SliderLayout#flyEnd";
+	static final String DISPATCH_STATE_CHANGED = "SliderLayout#dispatchStateChanged";
+	static final String DISPATCH_SCROLL_CHANGED = "SliderLayout#dispatchScrollChanged";
+	static final String DISPATCH_SLIDER_OPENED = "SliderLayout#dispatchSliderOpened";
+	static final String DISPATCH_SLIDER_CLOSED = "SliderLayout#dispatchSliderClosed";
+	static final String DISPATCH_DETENT_CHANGED = "SliderLayout#dispatchDetentChanged";
+
+	static final String ASYNC_SLIDE = "SliderLayout slide";
+	static final String ASYNC_FLY = "SliderLayout fly";
+
+	private static boolean sEnabled = false;
+
+	private static Method sBeginAsyncSection = null;
+	private static Method sEndAsyncSection = null;
+
+	private static int sLastCookie = 0;
+
+	private SliderTrace() {
+
+	}
+
+	static void setEnabled(boolean enabled) {
+		if (Build.VERSION.SDK_INT<Build.VERSION_CODES.JELLY_BEAN_MR2) {
+			return;
+		}
+
+		/* 29 is Build.VERSION_CODES.Q which the compile SDK does not have. */
+		if (enabled && sBeginAsyncSection==null && Build.VERSION.SDK_INT>=29) {
+			try {
+				sBeginAsyncSection = Trace.class.getMethod("beginAsyncSection", String.class, int.class);
+				sEndAsyncSection = Trace.class.getMethod("endAsyncSection", String.class, int.class);
+			} catch (NoSuchMethodException e) {
+				sBeginAsyncSection = null;
+				sEndAsyncSection = null;
+			}
+		}
+
+		sEnabled = enabled;
+	}
+
+	static boolean isEnabled() {
+		return sEnabled;
+	}
+
+	static void beginSection(String name) {
+		if (sEnabled) {
+			Trace.beginSection(name);
+		}
+	}
+
+	static void endSection() {
+		if (sEnabled) {
+			Trace.endSection();
+		}
+	}
+
+	static int newCookie() {
+		return ++sLastCookie;
+	}
+
+	static void beginAsyncSection(String name, int cookie) {
+		if (sEnabled && sBeginAsyncSection!=null) {
+			invoke(sBeginAsyncSection, name, cookie);
+		}
+	}
+
+	static void endAsyncSection(String name, int cookie) {
+		if (sEnabled && sEndAsyncSection!=null) {
+			invoke(sEndAsyncSection, name, cookie);
+		}
+	}
+
+	private static void invoke(Method method, String name, int cookie) {
+		try {
+			method.invoke(null, name, cookie);
+		} catch (Exception e) {
+			// Tracing must never break the layout.
+		}
+	}
+
+}
@@ -0,0 +1,273 @@
+package com.yashoid.sliderlayout;
+
+/*
+ * Tracks a single pointer for SliderLayout: touch slop, the pointer id and the velocity. It posts nothing and
+ * allocates nothing after construction. A drag starts once the pointer has moved past the slop along the tracked axis,
+ * and the movement is counted from the slop so the slide does not jump by it.
+ *
+ * Positions are in pixels, times in milliseconds and velocities in pixels per second.
+ */
+class TouchTracker {
+
+	static final int INVALID_POINTER = -1;
+
+	private static final int SAMPLE_COUNT = 20;
+
+	/* Samples older than this are not used for the velocity. */
+	private static final long HORIZON = 100;
+
+	/* A pointer that has not moved for this long before the last sample is considered stopped. */
+	private static final long ASSUME_STOPPED = 40;
+
+	private float mTouchSlop;
+
+	private int mPointerId = INVALID_POINTER;
+
+	private boolean mIsVertical = false;
+
+	private float mDownX;
+	private float mDownY;
+
+	/* Where the slop is measured from, in the coordinates of the current pointer. */
+	private float mOriginX;
+	private float mOriginY;
+
+	private float mX;
+	private float mY;
+
+	private boolean mIsDragging = false;
+	private float mDragPosition;
+
+	/* Positions along the tracked axis. */
+	private float[] mSamplePosition = new float[SAMPLE_COUNT];
+	private long[] mSampleTime = new long[SAMPLE_COUNT];
+	private int mSampleIndex = 0;
+	private int mSampleCount = 0;
+
+	TouchTracker(float touchSlop) {
+		mTouchSlop = touchSlop;
+	}
+
+	/*
+	 * Starts tracking a pointer along the horizontal axis, or along the vertical one if vertical is true.
+	 */
+	void onDown(int pointerId, float x, float y, long time, boolean vertical) {
+		mPointerId = pointerId;
+
+		mIsVertical = vertical;
+
+		mDownX = x;
+		mDownY = y;
+
+		mOriginX = x;
+		mOriginY = y;
+
+		mX = x;
+		mY = y;
+
+		mIsDragging = false;
+
+		mSampleIndex = 0;
+		mSampleCount = 0;
+
+		addSample(getPosition(), time);
+	}
+
+	void onMove(float x, float y, long time) {
+		mX = x;
+		mY = y;
+
+		addSample(getPosition(), time);
+
+		if (mIsDragging) {
+			return;
+		}
+
+		float along = mIsVertical?y - mOriginY:x - mOriginX;
+		float across = mIsVertical?x - mOriginX:y - mOriginY;
+
+		if (Math.abs(along)>mTouchSlop && Math.abs(along)>Math.abs(across)) {
+			float origin = mIsVertical?mOriginY:mOriginX;
+
+			startDrag(origin + (along>0?mTouchSlop:-mTouchSlop));
+		}
+	}
+
+	/*
+	 * Continues the gesture with another pointer. Everything tracked so far is shifted by the distance between the two
+	 * pointers so neither the drag nor the velocity jumps.
+	 */
+	void switchPointer(int pointerId, float x, float y) {
+		mPointerId = pointerId;
+
+		offsetLocation(x - mX, y - mY);
+	}
+
+	/*
+	 * Shifts everything tracked so far, for when the coordinates of the pointer change without the pointer moving.
+	 */
+	void offsetLocation(float offsetX, float offsetY) {
+		mX += offsetX;
+		mY += offsetY;
+
+		mOriginX += offsetX;
+		mOriginY += offsetY;
+
+		float offset = mIsVertical?offsetY:offsetX;
+
+		mDragPosition += offset;
+
+		for (int i=0; i<mSampleCount; i++) {
+			mSamplePosition[i] += offset;
+		}
+	}
+
+	/*
+	 * Starts dragging from the current position without waiting for the slop.
+	 */
+	void startDrag() {
+		startDrag(getPosition());
+	}
+
+	private void startDrag(float position) {
+		mIsDragging = true;
+		mDragPosition = position;
+	}
+
+	void reset() {
+		mPointerId = INVALID_POINTER;
+		mIsDragging = false;
+
+		mSampleIndex = 0;
+		mSampleCount = 0;
+	}
+
+	boolean isTracking() {
+		return mPointerId!=INVALID_POINTER;
+	}
+
+	boolean isDragging() {
+		return mIsDragging;
+	}
+
+	int getPointerId() {
+		return mPointerId;
+	}
+
+	boolean isVertical() {
+		return mIsVertical;
+	}
+
+	/*
+	 * Returns where the gesture started. Not affected by pointer switches.
+	 */
+	float getDownX() {
+		return mDownX;
+	}
+
+	float getDownY() {
+		return mDownY;
+	}
+
+	float getX() {
+		return mX;
+	}
+
+	float getY() {
+		return mY;
+	}
+
+	/*
+	 * Returns the current position along the tracked axis.
+	 */
+	float getPosition() {
+		return mIsVertical?mY:mX;
+	}
+
+	/*
+	 * Returns the movement of the drag along the tracked axis since the last call.
+	 */
+	float consumeDelta() {
+		return consumeDelta(0);
+	}
+
+	/*
+	 * Same as consumeDelta() but moves the drag ahead of the pointer by the prediction. The next call takes it back.
+	 */
+	float consumeDelta(float prediction) {
+		if (!mIsDragging) {
+			return 0;
+		}
+
+		float position = getPosition() + prediction;
+		float delta = position - mDragPosition;
+
+		mDragPosition = position;
+
+		return delta;
+	}
+
+	private void addSample(float position, long time) {
+		mSamplePosition[mSampleIndex] = position;
+		mSampleTime[mSampleIndex] = time;
+
+		mSampleIndex = (mSampleIndex + 1)%SAMPLE_COUNT;
+
+		if (mSampleCount<SAMPLE_COUNT) {
+			mSampleCount++;
+		}
+	}
+
+	/*
+	 * Least squares line through the samples within the horizon, along the tracked axis.
+	 */
+	float computeVelocity() {
+		if (mSampleCount<2) {
+			return 0;
+		}
+
+		int newest = (mSampleIndex - 1 + SAMPLE_COUNT)%SAMPLE_COUNT;
+		int previous = (newest - 1 + SAMPLE_COUNT)%SAMPLE_COUNT;
+
+		long newestTime = mSampleTime[newest];
+		float newestPosition = mSamplePosition[newest];
+
+		if (newestTime - mSampleTime[previous]>ASSUME_STOPPED) {
+			return 0;
+		}
+
+		double sumT = 0;
+		double sumX = 0;
+		double sumTT = 0;
+		double sumTX = 0;
+		int count = 0;
+
+		for (int i=0; i<mSampleCount; i++) {
+			int index = (newest - i + SAMPLE_COUNT)%SAMPLE_COUNT;
+
+			long age = newestTime - mSampleTime[index];
+
+			if (age>HORIZON) {
+				break;
+			}
+
+			double t = -age;
+			double x = mSamplePosition[index] - newestPosition;
+
+			sumT += t;
+			sumX += x;
+			sumTT += t*t;
+			sumTX += t*x;
+			count++;
+		}
+
+		double denominator = count*sumTT - sumT*sumT;
+
+		if (count<2 || denominator==0) {
+			return 0;
+		}
+
+		return (float) ((count*sumTX - sumT*sumX)/denominator*1000);
+	}
+
+}
@@ -0,0 +1,67 @@
+package com.yashoid.sliderlayout;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assume.assumeTrue;
+
+/*
+ * Reads the bytes allocated by the current thread. Tests that depend on it are skipped on JVMs that do not support
+ * allocation accounting.
+ */
+final class Allocations {
+
+	interface Operation {
+
+		void run();
+
+	}
+
+	private static final int ROUNDS = 5;
+
+	private Allocations() {
+
+	}
+
+	static void assumeSupported() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+
+		assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+
+		sunBean.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	static long allocatedBytes() {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/*
+	 * Returns the fewest bytes the operation allocated in a few runs after a warm up. Reading the counter allocates by
+	 * itself and the first runs can include class loading and compilation, neither of which is counted.
+	 */
+	static long allocatedBytes(Operation operation) {
+		operation.run();
+
+		long fewest = Long.MAX_VALUE;
+
+		for (int i=0; i<ROUNDS; i++) {
+			long before = allocatedBytes();
+			long overhead = allocatedBytes() - before;
+
+			long start = allocatedBytes();
+
+			operation.run();
+
+			fewest = Math.min(fewest, allocatedBytes() - start - overhead);
+		}
+
+		return fewest;
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.yashoid.sliderlayout;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.view.View;
+
+/*
+ * A plain view that counts its measure, layout and draw passes.
+ */
+class CountingView extends View {
+
+	int measureCount = 0;
+	int layoutCount = 0;
+	int drawCount = 0;
+
+	CountingView(Context context) {
+		super(context);
+
+		setWillNotDraw(false);
+	}
+
+	void resetCounts() {
+		measureCount = 0;
+		layoutCount = 0;
+		drawCount = 0;
+	}
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		measureCount++;
+
+		super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+	}
+
+	@Override
+	protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+		layoutCount++;
+
+		super.onLayout(changed, left, top, right, bottom);
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas) {
+		drawCount++;
+
+		super.onDraw(canvas);
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.yashoid.sliderlayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SettleSpringTest {
+
+	private static final long FRAME_MILLIS = 16;
+
+	@Test
+	public void sameFrameTimesGiveSamePositions() {
+		SettleSpring first = new SettleSpring();
+		SettleSpring second = new SettleSpring();
+
+		long duration = first.start(0, 1200, 300);
+
+		assertEquals(duration, second.start(0, 1200, 300));
+
+		for (long time=0; time<=duration; time+=FRAME_MILLIS) {
+			assertEquals(first.getPosition(time), second.getPosition(time), 0);
+			assertEquals(first.getVelocity(time), second.getVelocity(time), 0);
+		}
+	}
+
+	@Test
+	public void startsFromReleaseVelocity() {
+		SettleSpring spring = new SettleSpring();
+
+		spring.start(100, 2000, 300);
+
+		assertEquals(100, spring.getPosition(0), 0.001f);
+		assertEquals(2000, spring.getVelocity(0), 0.5f);
+	}
+
+	@Test
+	public void settlesOnTargetWithoutPassingIt() {
+		SettleSpring spring = new SettleSpring();
+		spring.setSpring(400, 0.5f);
+
+		long duration = spring.start(0, 3000, 300);
+
+		assertTrue(duration>0);
+
+		for (long time=0; time<duration; time+=FRAME_MILLIS) {
+			assertTrue(spring.getPosition(time)<=300.5f);
+		}
+
+		assertEquals(300, spring.getPosition(duration), 0);
+		assertEquals(0, spring.getVelocity(duration), 0);
+	}
+
+	@Test
+	public void settlesAtTheFirstSettledMillisecond() {
+		float[] dampingRatios = { 0.3f, 0.7f, 1, 1.8f };
+		float[] velocities = { -4000, -800, 0, 800, 4000 };
+
+		for (float dampingRatio : dampingRatios) {
+			for (float velocity : velocities) {
+				SettleSpring spring = new SettleSpring();
+				spring.setSpring(600, dampingRatio);
+
+				long duration = spring.start(100, velocity, 300);
+
+				for (long time=0; time<duration; time++) {
+					float position = spring.getPosition(time);
+
+					assertTrue(position<300);
+					assertFalse(position>299.5f && Math.abs(spring.getVelocity(time))<20);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void stifferSpringSettlesFaster() {
+		SettleSpring soft = new SettleSpring();
+		soft.setSpring(200, 1);
+
+		SettleSpring stiff = new SettleSpring();
+		stiff.setSpring(1600, 1);
+
+		assertTrue(stiff.start(0, 0, 300)<soft.start(0, 0, 300));
+	}
+
+	@Test
+	public void restingOnTargetTakesNoTime() {
+		SettleSpring spring = new SettleSpring();
+
+		assertEquals(0, spring.start(300, 0, 300));
+		assertEquals(300, spring.getPosition(0), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveStiffness() {
+		new SettleSpring().setSpring(0, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNonPositiveDampingRatio() {
+		new SettleSpring().setSpring(800, 0);
+	}
+
+	@Test
+	public void flyingDoesNotAllocate() {
+		Allocations.assumeSupported();
+
+		final SettleSpring spring = new SettleSpring();
+
+		long allocated = Allocations.allocatedBytes(new Allocations.Operation() {
+
+			@Override
+			public void run() {
+				for (int i=0; i<100; i++) {
+					fly(spring);
+				}
+			}
+
+		});
+
+		assertEquals(0, allocated);
+	}
+
+	private static float fly(SettleSpring spring) {
+		float sum = 0;
+
+		long duration = spring.start(0, 1500, 300);
+
+		for (long time=0; time<=duration; time+=FRAME_MILLIS) {
+			sum += spring.getPosition(time) + spring.getVelocity(time);
+		}
+
+		return sum;
+	}
+
+}
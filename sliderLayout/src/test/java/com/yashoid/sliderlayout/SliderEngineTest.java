@@ -0,0 +1,545 @@
+package com.yashoid.sliderlayout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SliderEngineTest {
+
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	private static final int SLIDER_SIZE = 300;
+	private static final float SENSITIVE_AREA_WIDTH = 20;
+	private static final float PEEK = 72;
+
+	private static final long FRAME_MILLIS = 16;
+	private static final int MAXIMUM_FLY_FRAMES = 200;
+
+	private RecordingCallback mCallback;
+	private SliderEngine mEngine;
+
+	@Before
+	public void setUp() {
+		mCallback = new RecordingCallback();
+
+		mEngine = new SliderEngine(mCallback);
+		mEngine.setWidth(WIDTH);
+		mEngine.setHeight(HEIGHT);
+		mEngine.setSensitiveAreaWidth(SENSITIVE_AREA_WIDTH);
+		mEngine.setSliderSize(SliderEngine.LEFT, SLIDER_SIZE);
+		mEngine.setSliderSize(SliderEngine.RIGHT, SLIDER_SIZE);
+	}
+
+	@Test
+	public void touchOutsideEdgesIsIgnored() {
+		assertFalse(mEngine.onTouchDown(WIDTH/2, HEIGHT/2));
+		assertTrue(mEngine.onTouchDown(5, HEIGHT/2));
+		assertTrue(mEngine.onTouchDown(WIDTH - 5, HEIGHT/2));
+	}
+
+	@Test
+	public void edgeNeedsSlider() {
+		mEngine.setSliderSize(SliderEngine.RIGHT, SliderEngine.NO_SIZE);
+
+		assertEquals(SliderEngine.LEFT, mEngine.getEdgeAt(5, HEIGHT/2));
+		assertEquals(SliderEngine.NO_SLIDER, mEngine.getEdgeAt(WIDTH - 5, HEIGHT/2));
+
+		mEngine.setProvidedSliders(SliderEngine.RIGHT);
+
+		assertEquals(SliderEngine.RIGHT, mEngine.getEdgeAt(WIDTH - 5, HEIGHT/2));
+	}
+
+	@Test
+	public void dragIsClampedToSliderSize() {
+		mEngine.onTouchDown(5, HEIGHT/2);
+
+		assertTrue(mEngine.onTouchScroll(SliderEngine.LEFT, 200));
+		assertTrue(mEngine.onTouchScroll(SliderEngine.LEFT, 200));
+
+		assertEquals(SliderEngine.STATE_SCROLLING, mEngine.getState());
+		assertEquals(SliderEngine.LEFT, mEngine.getSlidingSlider());
+		assertEquals(SLIDER_SIZE, mEngine.getSlideAmount(), 0);
+		assertEquals(1, mEngine.getSlideRatio(), 0);
+
+		mEngine.onTouchScroll(SliderEngine.LEFT, -1000);
+
+		assertEquals(0, mEngine.getSlideAmount(), 0);
+	}
+
+	@Test
+	public void dragReportsStateOnceAndScrollPerMove() {
+		mEngine.onTouchDown(5, HEIGHT/2);
+
+		for (int i=0; i<5; i++) {
+			mEngine.onTouchScroll(SliderEngine.LEFT, 20);
+		}
+
+		assertEquals(1, mCallback.stateChanges);
+		assertEquals(SliderEngine.STATE_SCROLLING, mCallback.lastState);
+		assertEquals(5, mCallback.scrollChanges);
+		assertEquals(100, mCallback.slideAmount, 0);
+	}
+
+	@Test
+	public void lockedSliderDoesNotSlide() {
+		mEngine.setLockedSliders(SliderEngine.LEFT);
+
+		mEngine.onTouchDown(5, HEIGHT/2);
+
+		assertFalse(mEngine.onTouchScroll(SliderEngine.LEFT, 100));
+		assertEquals(0, mEngine.getSlideAmount(), 0);
+		assertEquals(SliderEngine.NO_SLIDER, mEngine.getSlidingSlider());
+	}
+
+	@Test
+	public void lockingOneSliderDoesNotCloseTheOther() {
+		openRightSlider();
+
+		mEngine.setLockedSliders(SliderEngine.LEFT);
+
+		assertEquals(SliderEngine.STATE_IDLE, mEngine.getState());
+		assertEquals(SliderEngine.RIGHT, mEngine.getOpenSlider());
+	}
+
+	@Test
+	public void releaseHalfwayFliesClosed() {
+		mEngine.onTouchDown(5, HEIGHT/2);
+		mEngine.onTouchScroll(SliderEngine.LEFT, 150);
+		mEngine.onTouchUp(155, HEIGHT/2);
+
+		assertEquals(SliderEngine.STATE_FLYING, mEngine.getState());
+		assertFalse(mEngine.isFlyingOpen());
+
+		runFly();
+
+		assertEquals(SliderEngine.STATE_IDLE, mEngine.getState());
+		assertEquals(SliderEngine.NO_SLIDER, mEngine.getOpenSlider());
+		assertEquals(0, mEngine.getSlideAmount(), 0);
+		assertEquals(1, mCallback.closes);
+	}
+
+	@Test
+	public void flingFliesOpen() {
+		mEngine.onTouchDown(5, HEIGHT/2);
+		mEngine.onTouchScroll(SliderEngine.LEFT, 100);
+
+		assertTrue(mEngine.onTouchFling(1500));
+
+		runFly();
+
+		assertEquals(SliderEngine.LEFT, mEngine.getOpenSlider());
+		assertEquals(SLIDER_SIZE, mEngine.getSlideAmount(), 0);
+		assertEquals(1, mCallback.opens);
+		assertEquals(1, mCallback.lastScrollRatio, 0);
+	}
+
+	@Test
+	public void openStaysWithinBoundsAndReportsEachFrame() {
+		mEngine.openSlider(SliderEngine.LEFT);
+
+		long duration = mCallback.flyDuration;
+
+		assertTrue(duration>0);
+
+		int frames = 0;
+
+		for (long time=FRAME_MILLIS; time<duration; time+=FRAME_MILLIS) {
+			mEngine.onFlyFrame(time);
+
+			assertTrue(mEngine.getSlideAmount()>=0);
+			assertTrue(mEngine.getSlideAmount()<=SLIDER_SIZE);
+
+			frames++;
+		}
+
+		assertEquals(frames, mCallback.scrollChanges);
+
+		mEngine.onFlyFrame(duration);
+
+		assertEquals(SliderEngine.LEFT, mEngine.getOpenSlider());
+	}
+
+	@Test
+	public void closingReversesAnOpeningFly() {
+		mEngine.openSlider(SliderEngine.LEFT);
+		mEngine.onFlyFrame(FRAME_MILLIS*3);
+
+		float velocity = mEngine.getFlyVelocity();
+
+		assertTrue(velocity>0);
+
+		mEngine.closeSliders();
+
+		assertEquals(SliderEngine.STATE_FLYING, mEngine.getState());
+		assertFalse(mEngine.isFlyingOpen());
+		assertEquals(velocity, mEngine.getFlyVelocity(), 0);
+
+		// Flying, then idle once closed.
+		runFly();
+
+		assertEquals(2, mCallback.stateChanges);
+		assertEquals(SliderEngine.NO_SLIDER, mEngine.getOpenSlider());
+	}
+
+	@Test
+	public void bottomSliderOpensUpwards() {
+		mEngine.setSliderSize(SliderEngine.BOTTOM, SLIDER_SIZE);
+
+		assertEquals(SliderEngine.BOTTOM, mEngine.getEdgeAt(WIDTH/2, HEIGHT - 5));
+		assertEquals(SliderEngine.BOTTOM, mEngine.getDragSlider(WIDTH/2, HEIGHT - 5));
+
+		mEngine.onTouchDown(WIDTH/2, HEIGHT - 5);
+
+		assertFalse(mEngine.onTouchScroll(SliderEngine.BOTTOM, 50));
+		assertTrue(mEngine.onTouchScroll(SliderEngine.BOTTOM, -400));
+
+		assertEquals(SliderEngine.BOTTOM, mEngine.getSlidingSlider());
+		assertEquals(-SLIDER_SIZE, mEngine.getSlideAmount(), 0);
+
+		assertTrue(mEngine.onTouchFling(-1500));
+		assertTrue(mEngine.isFlyingOpen());
+
+		runFly();
+
+		assertEquals(SliderEngine.BOTTOM, mEngine.getOpenSlider());
+		assertTrue(mEngine.isOverContent(WIDTH/2, 10));
+		assertFalse(mEngine.isOverContent(WIDTH/2, HEIGHT - 10));
+	}
+
+	@Test
+	public void lockingTopDoesNotLockBottom() {
+		mEngine.setSliderSize(SliderEngine.TOP, SLIDER_SIZE);
+		mEngine.setSliderSize(SliderEngine.BOTTOM, SLIDER_SIZE);
+		mEngine.setLockedSliders(SliderEngine.TOP | SliderEngine.LEFT);
+
+		assertTrue(mEngine.isLocked(SliderEngine.TOP));
+		assertFalse(mEngine.isLocked(SliderEngine.BOTTOM));
+		assertFalse(mEngine.isLocked(SliderEngine.RIGHT));
+	}
+
+	@Test
+	public void catchingAFlyTurnsItIntoADrag() {
+		mEngine.setCatchesFlyingSliders(true);
+
+		mEngine.openSlider(SliderEngine.LEFT);
+		mEngine.onFlyFrame(FRAME_MILLIS*3);
+
+		float slideAmount = mEngine.getSlideAmount();
+
+		mEngine.catchFly();
+
+		assertEquals(1, mCallback.flyCancels);
+		assertEquals(SliderEngine.STATE_SCROLLING, mEngine.getState());
+		assertEquals(slideAmount, mEngine.getSlideAmount(), 0);
+
+		mEngine.onTouchScroll(SliderEngine.LEFT, 10);
+
+		assertEquals(slideAmount + 10, mEngine.getSlideAmount(), 0);
+	}
+
+	@Test
+	public void tapOnContentClosesOpenSlider() {
+		openRightSlider();
+
+		assertTrue(mEngine.isOverContent(10, HEIGHT/2));
+		assertFalse(mEngine.isOverContent(WIDTH - 10, HEIGHT/2));
+
+		mEngine.onTouchDown(10, HEIGHT/2);
+		mEngine.onTouchUp(10, HEIGHT/2);
+
+		assertEquals(SliderEngine.STATE_FLYING, mEngine.getState());
+	}
+
+	@Test
+	public void dragStartedWithoutTouchDownMovesOnFirstScroll() {
+		mEngine.onDragStart();
+
+		assertTrue(mEngine.onTouchScroll(SliderEngine.LEFT, 50));
+		assertEquals(50, mEngine.getSlideAmount(), 0);
+
+		mEngine.onDragEnd();
+
+		assertEquals(SliderEngine.STATE_FLYING, mEngine.getState());
+		assertFalse(mEngine.isFlyingOpen());
+	}
+
+	@Test
+	public void endingADragKeepsTheOpenSlider() {
+		openRightSlider();
+
+		mEngine.onDragEnd();
+
+		assertEquals(SliderEngine.STATE_IDLE, mEngine.getState());
+		assertEquals(SliderEngine.RIGHT, mEngine.getOpenSlider());
+	}
+
+	@Test
+	public void releaseBetweenDetentsFliesToTheNearest() {
+		mEngine.setDetents(SliderEngine.LEFT, new float[] { PEEK });
+
+		mEngine.onTouchDown(5, HEIGHT/2);
+		mEngine.onTouchScroll(SliderEngine.LEFT, PEEK + 40);
+		mEngine.onTouchUp(PEEK + 45, HEIGHT/2);
+
+		runFly();
+
+		assertEquals(SliderEngine.LEFT, mEngine.getOpenSlider());
+		assertEquals(1, mEngine.getDetent());
+		assertEquals(PEEK, mEngine.getSlideAmount(), 0);
+		assertEquals(1, mCallback.detentChanges);
+		assertEquals(1, mCallback.lastDetent);
+		assertEquals(0, mCallback.opens);
+	}
+
+	@Test
+	public void flingFliesToTheNextDetent() {
+		mEngine.setDetents(SliderEngine.RIGHT, new float[] { 200, PEEK });
+
+		assertEquals(4, mEngine.getDetentCount(SliderEngine.RIGHT));
+
+		mEngine.onTouchDown(WIDTH - 5, HEIGHT/2);
+		mEngine.onTouchScroll(SliderEngine.RIGHT, -100);
+
+		assertTrue(mEngine.onTouchFling(-1500));
+
+		runFly();
+
+		assertEquals(2, mEngine.getDetent());
+		assertEquals(-200, mEngine.getSlideAmount(), 0);
+
+		mEngine.onTouchDown(10, HEIGHT/2);
+		mEngine.onTouchScroll(SliderEngine.RIGHT, 0);
+		mEngine.onTouchFling(1500);
+
+		runFly();
+
+		assertEquals(1, mEngine.getDetent());
+		assertEquals(-PEEK, mEngine.getSlideAmount(), 0);
+
+		mEngine.openSlider(SliderEngine.RIGHT);
+
+		runFly();
+
+		assertEquals(3, mEngine.getDetent());
+		assertEquals(1, mCallback.opens);
+		assertEquals(3, mCallback.detentChanges);
+	}
+
+	@Test
+	public void emptySliderReportsZeroRatio() {
+		mEngine.setSliderSize(SliderEngine.LEFT, 0);
+
+		mEngine.onTouchDown(5, HEIGHT/2);
+		mEngine.onTouchScroll(SliderEngine.LEFT, 10);
+
+		assertEquals(1, mCallback.scrollChanges);
+		assertEquals(0, mCallback.lastScrollRatio, 0);
+	}
+
+	@Test
+	public void detentsOnClosedOrFullyOpenAreDropped() {
+		mEngine.setDetents(SliderEngine.LEFT, new float[] { 0, SLIDER_SIZE, SLIDER_SIZE + 100 });
+
+		assertEquals(2, mEngine.getDetentCount(SliderEngine.LEFT));
+
+		mEngine.onTouchDown(5, HEIGHT/2);
+		mEngine.onTouchScroll(SliderEngine.LEFT, SLIDER_SIZE + 50);
+		mEngine.onTouchUp(SLIDER_SIZE + 50, HEIGHT/2);
+
+		assertEquals(SliderEngine.LEFT, mEngine.getOpenSlider());
+		assertEquals(1, mEngine.getDetent());
+		assertEquals(1, mCallback.opens);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void detentsCanNotChangeWhileOpen() {
+		mEngine.setDetents(SliderEngine.LEFT, new float[] { PEEK });
+
+		mEngine.openSlider(SliderEngine.LEFT, 1);
+
+		runFly();
+
+		mEngine.setDetents(SliderEngine.LEFT, new float[0]);
+	}
+
+	@Test
+	public void openingToADetentStopsThere() {
+		mEngine.setDetents(SliderEngine.LEFT, new float[] { PEEK });
+
+		mEngine.openSlider(SliderEngine.LEFT, 1);
+
+		runFly();
+
+		assertEquals(SliderEngine.LEFT, mEngine.getOpenSlider());
+		assertEquals(PEEK, mEngine.getSlideAmount(), 0);
+
+		mEngine.closeSliders();
+
+		runFly();
+
+		assertEquals(0, mEngine.getDetent());
+		assertEquals(SliderEngine.NO_SLIDER, mEngine.getOpenSlider());
+		assertEquals(2, mCallback.detentChanges);
+	}
+
+	@Test
+	public void openCloseCyclesDoNotAllocate() {
+		Allocations.assumeSupported();
+
+		long allocated = Allocations.allocatedBytes(new Allocations.Operation() {
+
+			@Override
+			public void run() {
+				for (int i=0; i<10; i++) {
+					mEngine.openSlider(SliderEngine.LEFT);
+					runFly();
+
+					mEngine.closeSliders();
+					runFly();
+
+					// Retargets the fly half way.
+					mEngine.openSlider(SliderEngine.LEFT);
+					mEngine.onFlyFrame(FRAME_MILLIS);
+					mEngine.closeSliders();
+					runFly();
+				}
+			}
+
+		});
+
+		assertEquals(0, allocated);
+		assertEquals(SliderEngine.NO_SLIDER, mEngine.getOpenSlider());
+	}
+
+	@Test
+	public void closingImmediatelyCancelsTheFly() {
+		mEngine.openSlider(SliderEngine.LEFT);
+		mEngine.onFlyFrame(FRAME_MILLIS);
+
+		mEngine.closeSliderImmediately(SliderEngine.LEFT);
+
+		assertEquals(1, mCallback.flyCancels);
+		assertEquals(SliderEngine.STATE_IDLE, mEngine.getState());
+		assertEquals(0, mEngine.getSlideAmount(), 0);
+		assertEquals(1, mCallback.closes);
+	}
+
+	@Test
+	public void dragAndFlyDoNotAllocate() {
+		Allocations.assumeSupported();
+
+		long allocated = Allocations.allocatedBytes(new Allocations.Operation() {
+
+			@Override
+			public void run() {
+				for (int i=0; i<100; i++) {
+					dragAndFly();
+				}
+			}
+
+		});
+
+		assertEquals(0, allocated);
+	}
+
+	private void dragAndFly() {
+		mEngine.onTouchDown(5, HEIGHT/2);
+
+		for (int i=0; i<10; i++) {
+			mEngine.onTouchScroll(SliderEngine.LEFT, 10);
+		}
+
+		mEngine.onTouchFling(-800);
+
+		runFly();
+	}
+
+	private void openRightSlider() {
+		mEngine.openSlider(SliderEngine.RIGHT);
+
+		runFly();
+
+		mCallback.reset();
+	}
+
+	private void runFly() {
+		long duration = mCallback.flyDuration;
+
+		for (int frame=1; frame<MAXIMUM_FLY_FRAMES && mEngine.getState()==SliderEngine.STATE_FLYING; frame++) {
+			mEngine.onFlyFrame(Math.min(frame*FRAME_MILLIS, duration));
+		}
+	}
+
+	private static class RecordingCallback implements SliderEngine.Callback {
+
+		int stateChanges;
+		int scrollChanges;
+		int opens;
+		int closes;
+		int flyCancels;
+		int detentChanges;
+
+		int lastState = SliderEngine.STATE_IDLE;
+		float lastScrollRatio;
+		float slideAmount;
+		long flyDuration;
+		int lastDetent;
+
+		void reset() {
+			stateChanges = 0;
+			scrollChanges = 0;
+			opens = 0;
+			closes = 0;
+			flyCancels = 0;
+			detentChanges = 0;
+		}
+
+		@Override
+		public void onStateChanged(int state, int slider) {
+			stateChanges++;
+			lastState = state;
+		}
+
+		@Override
+		public void onSlideAmountChanged(float slideAmount) {
+			this.slideAmount = slideAmount;
+		}
+
+		@Override
+		public void onScrollChanged(float ratio, int slider) {
+			scrollChanges++;
+			lastScrollRatio = ratio;
+		}
+
+		@Override
+		public void onSliderOpened(int slider) {
+			opens++;
+		}
+
+		@Override
+		public void onSliderClosed(int slider) {
+			closes++;
+		}
+
+		@Override
+		public void onDetentChanged(int detent, int slider) {
+			detentChanges++;
+			lastDetent = detent;
+		}
+
+		@Override
+		public void onFlyStarted(long duration) {
+			flyDuration = duration;
+		}
+
+		@Override
+		public void onFlyCanceled() {
+			flyCancels++;
+		}
+
+	}
+
+}
@@ -0,0 +1,734 @@
+package com.yashoid.sliderlayout;
+
+import android.animation.ValueAnimator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+
+import com.yashoid.sliderlayout.SliderLayout.DetentListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Scripts drags and flies frame by frame and checks the work done per frame. A frame runs the main looper for one frame
+ * interval, then measures and lays out the layout only if it requested a layout, then draws it the way a traversal
+ * would.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class SliderLayoutPerformanceTest {
+
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	private static final int SLIDER_WIDTH = 300;
+
+	private static final long FRAME_MILLIS = 16;
+	private static final int MAXIMUM_FLY_FRAMES = 200;
+
+	private static final int DRAG_STEP = 20;
+	private static final int DRAG_STEPS = 10;
+
+	private static final int PEEK_SIZE = 100;
+
+	private SliderLayout mLayout;
+	private CountingView mContent;
+	private CountingView mLeftSlider;
+
+	private Canvas mCanvas;
+
+	private int mWidthSpec;
+	private int mHeightSpec;
+
+	private int mLayoutPasses;
+
+	private RecordingListener mListener;
+
+	@Before
+	public void setUp() {
+		mLayout = new SliderLayout(RuntimeEnvironment.application);
+
+		mContent = new CountingView(RuntimeEnvironment.application);
+		mLayout.addView(mContent, new SliderLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+				ViewGroup.LayoutParams.MATCH_PARENT));
+
+		mLeftSlider = new CountingView(RuntimeEnvironment.application);
+
+		SliderLayout.LayoutParams params = new SliderLayout.LayoutParams(SLIDER_WIDTH,
+				ViewGroup.LayoutParams.MATCH_PARENT);
+		params.gravity = SliderLayout.SLIDER_LEFT;
+
+		mLayout.addView(mLeftSlider, params);
+
+		mListener = new RecordingListener();
+		mLayout.addSliderListener(mListener);
+
+		mCanvas = new Canvas(Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888));
+
+		mWidthSpec = MeasureSpec.makeMeasureSpec(WIDTH, MeasureSpec.EXACTLY);
+		mHeightSpec = MeasureSpec.makeMeasureSpec(HEIGHT, MeasureSpec.EXACTLY);
+
+		runFrame();
+
+		resetCounts();
+	}
+
+	@Test
+	public void initialPassMeasuresEachChildOnce() {
+		SliderLayout layout = new SliderLayout(RuntimeEnvironment.application);
+
+		CountingView content = new CountingView(RuntimeEnvironment.application);
+		layout.addView(content, new SliderLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+				ViewGroup.LayoutParams.MATCH_PARENT));
+
+		CountingView slider = new CountingView(RuntimeEnvironment.application);
+
+		SliderLayout.LayoutParams params = new SliderLayout.LayoutParams(SLIDER_WIDTH,
+				ViewGroup.LayoutParams.MATCH_PARENT);
+		params.gravity = SliderLayout.SLIDER_LEFT;
+
+		layout.addView(slider, params);
+
+		layout.measure(mWidthSpec, mHeightSpec);
+		layout.layout(0, 0, WIDTH, HEIGHT);
+
+		assertEquals(1, content.measureCount);
+		assertEquals(1, slider.measureCount);
+		assertEquals(2, layout.getChildMeasureCount());
+	}
+
+	@Test
+	public void unchangedSpecsHitTheMeasureCache() {
+		int measureCount = mLayout.getChildMeasureCount();
+		int hitCount = mLayout.getMeasureCacheHitCount();
+
+		mLayout.requestLayout();
+		runFrame();
+
+		assertEquals(measureCount, mLayout.getChildMeasureCount());
+		assertEquals(hitCount + 2, mLayout.getMeasureCacheHitCount());
+		assertEquals(0, mContent.measureCount);
+		assertEquals(0, mLeftSlider.measureCount);
+	}
+
+	@Test
+	public void dragDoesNotMeasureOrLayout() {
+		int measureCount = mLayout.getChildMeasureCount();
+
+		drag(DRAG_STEPS, false);
+
+		assertTrue(mLeftSlider.getRight()>0);
+
+		assertEquals(0, mLayoutPasses);
+		assertEquals(measureCount, mLayout.getChildMeasureCount());
+		assertEquals(0, mContent.measureCount + mLeftSlider.measureCount);
+		assertEquals(0, mContent.layoutCount + mLeftSlider.layoutCount);
+	}
+
+	@Test
+	public void dragDrawsOncePerFrame() {
+		drag(DRAG_STEPS, false);
+
+		// The down event and every move are followed by a frame.
+		assertEquals(DRAG_STEPS + 1, mContent.drawCount);
+		assertTrue(mLeftSlider.drawCount<=DRAG_STEPS + 1);
+	}
+
+	@Test
+	public void dragReportsOneScrollChangePerMove() {
+		// Even the first move is past the slop.
+		assertTrue(ViewConfiguration.get(RuntimeEnvironment.application).getScaledTouchSlop()<DRAG_STEP);
+
+		drag(DRAG_STEPS, false);
+
+		assertEquals(1, mListener.stateChanges);
+		assertEquals(SliderLayout.STATE_SCROLLING, mListener.lastState);
+
+		assertEquals(DRAG_STEPS, mListener.scrollChanges);
+		assertSlidesSteadily(0, DRAG_STEPS);
+		assertEquals(0, mListener.opens + mListener.closes);
+	}
+
+	@Test
+	public void dragDoesNotAllocate() {
+		Allocations.assumeSupported();
+
+		final MotionEvent[] events = obtainDragOutAndBack();
+
+		long allocated = Allocations.allocatedBytes(new Allocations.Operation() {
+
+			@Override
+			public void run() {
+				for (MotionEvent event: events) {
+					mLayout.dispatchTouchEvent(event);
+				}
+			}
+
+		});
+
+		for (MotionEvent event: events) {
+			event.recycle();
+		}
+
+		assertEquals(0, allocated);
+
+		assertEquals(SliderLayout.STATE_IDLE, mListener.lastState);
+		assertEquals(-SLIDER_WIDTH, mLeftSlider.getLeft());
+	}
+
+	@Test
+	public void flingFliesOpenWithoutMeasureOrLayout() {
+		int measureCount = mLayout.getChildMeasureCount();
+
+		drag(DRAG_STEPS, true);
+
+		int frames = runFlyFrames();
+
+		assertTrue(frames<MAXIMUM_FLY_FRAMES);
+		assertTrue(mLayout.isSliderOpen(SliderLayout.SLIDER_LEFT));
+		assertEquals(0, mLeftSlider.getLeft());
+
+		assertEquals(0, mLayoutPasses);
+		assertEquals(measureCount, mLayout.getChildMeasureCount());
+		assertEquals(0, mContent.layoutCount + mLeftSlider.layoutCount);
+
+		assertEquals(1, mListener.opens);
+		assertEquals(SliderLayout.STATE_IDLE, mListener.lastState);
+	}
+
+	@Test
+	public void openAndCloseDoNotMeasureOrLayout() {
+		int measureCount = mLayout.getChildMeasureCount();
+
+		mLayout.openSlider(SliderLayout.SLIDER_LEFT);
+
+		// The fly reports where it starts right away.
+		assertEquals(1, mListener.scrollChanges);
+
+		int openFrames = runFlyFrames();
+		int openScrollChanges = mListener.scrollChanges;
+
+		mLayout.closeSliders();
+		int closeFrames = runFlyFrames();
+
+		assertTrue(openFrames<MAXIMUM_FLY_FRAMES);
+		assertTrue(closeFrames<MAXIMUM_FLY_FRAMES);
+
+		assertEquals(-SLIDER_WIDTH, mLeftSlider.getLeft());
+
+		assertEquals(0, mLayoutPasses);
+		assertEquals(measureCount, mLayout.getChildMeasureCount());
+
+		// Flying, idle after opening, flying, idle after closing.
+		assertEquals(4, mListener.stateChanges);
+		assertEquals(1, mListener.opens);
+		assertEquals(1, mListener.closes);
+
+		assertEquals(openFrames + 1, openScrollChanges);
+		assertEquals(openScrollChanges + closeFrames + 1, mListener.scrollChanges);
+
+		assertSlidesSteadily(0, openScrollChanges);
+		assertEquals(0, mListener.ratios[0], 0);
+		assertEquals(1, mListener.ratios[openScrollChanges - 1], 0);
+
+		assertSlidesSteadily(openScrollChanges, mListener.scrollChanges);
+		assertEquals(1, mListener.ratios[openScrollChanges], 0);
+		assertEquals(0, mListener.ratios[mListener.scrollChanges - 1], 0);
+	}
+
+	@Test
+	public void nestedScrollSlidesAndFliesWithoutLayout() {
+		mLayout.setSlidesOnNestedScroll(true);
+
+		assertTrue(mLayout.onStartNestedScroll(mContent, mContent, View.SCROLL_AXIS_HORIZONTAL));
+
+		mLayout.onNestedScrollAccepted(mContent, mContent, View.SCROLL_AXIS_HORIZONTAL);
+
+		for (int i=0; i<DRAG_STEPS; i++) {
+			// The child is at its start so none of the scroll towards it is consumed.
+			mLayout.onNestedScroll(mContent, 0, 0, -DRAG_STEP, 0);
+
+			runFrame();
+		}
+
+		assertEquals(SliderLayout.STATE_SCROLLING, mListener.lastState);
+		assertEquals(DRAG_STEPS*DRAG_STEP - SLIDER_WIDTH, mLeftSlider.getLeft());
+
+		int[] consumed = new int[2];
+
+		mLayout.onNestedPreScroll(mContent, DRAG_STEP, 0, consumed);
+
+		assertEquals(DRAG_STEP, consumed[0]);
+
+		assertTrue(mLayout.onNestedPreFling(mContent, -2000, 0));
+
+		mLayout.onStopNestedScroll(mContent);
+
+		runFlyFrames();
+
+		assertTrue(mLayout.isSliderOpen(SliderLayout.SLIDER_LEFT));
+		assertEquals(0, mLayoutPasses);
+	}
+
+	@Test
+	public void innermostLayoutTakesTheEdge() {
+		SliderLayout inner = new SliderLayout(RuntimeEnvironment.application);
+		inner.addView(new CountingView(RuntimeEnvironment.application), new SliderLayout.LayoutParams(
+				ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+		CountingView innerSlider = new CountingView(RuntimeEnvironment.application);
+
+		SliderLayout.LayoutParams params = new SliderLayout.LayoutParams(SLIDER_WIDTH,
+				ViewGroup.LayoutParams.MATCH_PARENT);
+		params.gravity = SliderLayout.SLIDER_LEFT;
+
+		inner.addView(innerSlider, params);
+
+		mLayout.removeView(mContent);
+		mLayout.addView(inner, 0, new SliderLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+				ViewGroup.LayoutParams.MATCH_PARENT));
+
+		runFrame();
+
+		drag(DRAG_STEPS, true);
+
+		assertTrue(innerSlider.getRight()>0);
+		assertEquals(0, mLeftSlider.getRight());
+		assertEquals(0, mListener.stateChanges);
+	}
+
+	@Test
+	public void inactiveSliderIsNotDrawnOrLaidOutWhileDragging() {
+		CountingView inactiveSlider = addSlider(SliderLayout.SLIDER_LEFT, SLIDER_WIDTH,
+				ViewGroup.LayoutParams.MATCH_PARENT);
+		CountingView topSlider = addSlider(SliderLayout.SLIDER_TOP, ViewGroup.LayoutParams.MATCH_PARENT, SLIDER_WIDTH);
+
+		runFrame();
+
+		resetCounts();
+		inactiveSlider.resetCounts();
+		topSlider.resetCounts();
+
+		assertEquals(mLeftSlider, mLayout.getActiveSlider(SliderLayout.SLIDER_LEFT));
+		assertEquals(View.INVISIBLE, inactiveSlider.getVisibility());
+
+		drag(DRAG_STEPS, false);
+
+		assertTrue(mLeftSlider.getRight()>0);
+		assertEquals(-SLIDER_WIDTH, topSlider.getTop());
+		assertEquals(0, topSlider.getLeft());
+
+		assertEquals(0, inactiveSlider.drawCount);
+		assertEquals(0, mLayoutPasses);
+		assertEquals(0, inactiveSlider.layoutCount + topSlider.layoutCount);
+	}
+
+	@Test
+	public void replacingTheSetListenerKeepsItsAddedRegistration() {
+		RecordingListener listener = new RecordingListener();
+
+		mLayout.addSliderListener(listener);
+		mLayout.setSliderListener(listener);
+		mLayout.setSliderListener(null);
+
+		mLayout.openSlider(SliderLayout.SLIDER_LEFT);
+
+		runFlyFrames();
+
+		assertEquals(1, listener.opens);
+	}
+
+	@Test
+	public void removingTheActiveSliderActivatesTheNextRightAway() {
+		CountingView nextSlider = addSlider(SliderLayout.SLIDER_LEFT, SLIDER_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT);
+
+		mLayout.removeView(mLeftSlider);
+
+		assertEquals(nextSlider, mLayout.getActiveSlider(SliderLayout.SLIDER_LEFT));
+	}
+
+	@Test
+	public void removingAllViewsClearsTheSlidersRightAway() {
+		addSlider(SliderLayout.SLIDER_LEFT, SLIDER_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT);
+		addSlider(SliderLayout.SLIDER_TOP, ViewGroup.LayoutParams.MATCH_PARENT, SLIDER_WIDTH);
+
+		mLayout.removeAllViews();
+
+		assertNull(mLayout.getActiveSlider(SliderLayout.SLIDER_LEFT));
+		assertNull(mLayout.getActiveSlider(SliderLayout.SLIDER_TOP));
+
+		mLayout.openSlider(SliderLayout.SLIDER_LEFT);
+
+		assertEquals(0, mListener.stateChanges);
+	}
+
+	@Test
+	public void activatedSliderIsMeasuredWithoutLayoutPass() {
+		CountingView inactiveSlider = addSlider(SliderLayout.SLIDER_LEFT, SLIDER_WIDTH,
+				ViewGroup.LayoutParams.MATCH_PARENT);
+
+		runFrame();
+
+		assertEquals(0, inactiveSlider.measureCount);
+
+		resetCounts();
+
+		mLayout.setActiveSlider(inactiveSlider);
+
+		runFrame();
+
+		assertEquals(1, inactiveSlider.measureCount);
+		assertEquals(-SLIDER_WIDTH, inactiveSlider.getLeft());
+		assertEquals(0, mLayoutPasses);
+
+		drag(DRAG_STEPS, true);
+
+		runFlyFrames();
+
+		assertEquals(0, inactiveSlider.getLeft());
+		assertEquals(0, mLayoutPasses);
+	}
+
+	@Test
+	public void bottomSliderFliesOpenUpwards() {
+		CountingView bottomSlider = addSlider(SliderLayout.SLIDER_BOTTOM, ViewGroup.LayoutParams.MATCH_PARENT,
+				SLIDER_WIDTH);
+
+		runFrame();
+
+		resetCounts();
+
+		drag(WIDTH/2, HEIGHT - 5, 0, -DRAG_STEP, DRAG_STEPS, true);
+
+		runFlyFrames();
+
+		assertTrue(mLayout.isSliderOpen(SliderLayout.SLIDER_BOTTOM));
+		assertEquals(HEIGHT - SLIDER_WIDTH, bottomSlider.getTop());
+		assertEquals(0, mLeftSlider.getRight());
+		assertEquals(0, mLayoutPasses);
+	}
+
+	@Test
+	public void releaseNearPeekRestsAtPeek() {
+		mLayout.setSliderDetents(SliderLayout.SLIDER_LEFT, new float[] { PEEK_SIZE });
+
+		drag(5, true);
+
+		runFlyFrames();
+
+		assertEquals(1, mLayout.getDetent());
+		assertEquals(PEEK_SIZE, mLeftSlider.getRight());
+		assertEquals(1, mListener.detentChanges);
+		assertEquals(1, mListener.lastDetent);
+		assertEquals(0, mListener.opens);
+		assertEquals(0, mLayoutPasses);
+	}
+
+	@Test
+	public void providedSliderWithPeekOpensFully() {
+		mLayout.removeView(mLeftSlider);
+
+		runFrame();
+
+		mLayout.setSliderProvider(SliderLayout.SLIDER_LEFT, new SliderLayout.SliderProvider() {
+
+			@Override
+			public View onCreateSlider(SliderLayout sliderLayout, int gravity) {
+				View slider = new CountingView(RuntimeEnvironment.application);
+				slider.setLayoutParams(new ViewGroup.LayoutParams(SLIDER_WIDTH, ViewGroup.LayoutParams.MATCH_PARENT));
+
+				return slider;
+			}
+
+		});
+		mLayout.setSliderDetents(SliderLayout.SLIDER_LEFT, new float[] { PEEK_SIZE });
+
+		resetCounts();
+
+		mLayout.openSlider(SliderLayout.SLIDER_LEFT);
+
+		runFlyFrames();
+
+		assertEquals(2, mLayout.getDetent());
+		assertEquals(SLIDER_WIDTH, mLayout.getActiveSlider(SliderLayout.SLIDER_LEFT).getRight());
+		assertEquals(1, mListener.opens);
+	}
+
+	@Test
+	public void closedSliderIsNotDrawnWhenHidden() {
+		mLayout.setHidesClosedSliders(true);
+
+		runFrame();
+
+		assertEquals(1, mContent.drawCount);
+		assertEquals(0, mLeftSlider.drawCount);
+	}
+
+	@Test
+	public void hiddenSliderIsLeftOutOfLayoutPasses() {
+		mLayout.setHidesClosedSliders(true);
+
+		mLeftSlider.requestLayout();
+
+		runFrame();
+
+		assertEquals(1, mLayoutPasses);
+		assertEquals(0, mLeftSlider.measureCount + mLeftSlider.layoutCount);
+
+		drag(DRAG_STEPS, true);
+
+		runFlyFrames();
+
+		assertEquals(View.VISIBLE, mLeftSlider.getVisibility());
+		assertEquals(0, mLeftSlider.getLeft());
+		assertEquals(1, mLayoutPasses);
+	}
+
+	@Test
+	public void openCloseCyclesAllocateNothingBeyondTheFrameClock() {
+		Allocations.assumeSupported();
+
+		long flyBytes = Allocations.allocatedBytes(new Allocations.Operation() {
+
+			@Override
+			public void run() {
+				mLayout.openSlider(SliderLayout.SLIDER_LEFT);
+				idleUntilSettled();
+
+				mLayout.closeSliders();
+				idleUntilSettled();
+			}
+
+		});
+
+		assertEquals(SliderLayout.STATE_IDLE, mListener.lastState);
+		assertEquals(-SLIDER_WIDTH, mLeftSlider.getLeft());
+
+		SettleSpring spring = new SettleSpring();
+
+		final long openDuration = spring.start(0, 0, SLIDER_WIDTH);
+		final long closeDuration = spring.start(SLIDER_WIDTH, 0, 0);
+
+		final ValueAnimator clock = ValueAnimator.ofFloat(0, 1);
+
+		long clockBytes = Allocations.allocatedBytes(new Allocations.Operation() {
+
+			@Override
+			public void run() {
+				runClock(clock, openDuration);
+				runClock(clock, closeDuration);
+			}
+
+		});
+
+		assertTrue("Flies allocated " + flyBytes + " bytes where the bare frame clock allocated " + clockBytes + ".",
+				flyBytes<=clockBytes);
+	}
+
+	private void drag(int steps, boolean release) {
+		drag(5, HEIGHT/2, DRAG_STEP, 0, steps, release);
+	}
+
+	private void drag(float x, float y, float stepX, float stepY, int steps, boolean release) {
+		long downTime = SystemClock.uptimeMillis();
+
+		dispatch(downTime, MotionEvent.ACTION_DOWN, x, y);
+
+		for (int i=0; i<steps; i++) {
+			x += stepX;
+			y += stepY;
+
+			dispatch(downTime, MotionEvent.ACTION_MOVE, x, y);
+		}
+
+		if (release) {
+			dispatch(downTime, MotionEvent.ACTION_UP, x, y);
+		}
+	}
+
+	/*
+	 * A whole gesture that drags the left slider out and back to closed, with a frame's time between events.
+	 */
+	private static MotionEvent[] obtainDragOutAndBack() {
+		MotionEvent[] events = new MotionEvent[DRAG_STEPS*2 + 2];
+
+		long downTime = SystemClock.uptimeMillis();
+		float x = 5;
+
+		events[0] = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, x, HEIGHT/2, 0);
+
+		for (int i=1; i<events.length - 1; i++) {
+			x += i<=DRAG_STEPS?DRAG_STEP:-DRAG_STEP;
+
+			events[i] = MotionEvent.obtain(downTime, downTime + i*FRAME_MILLIS, MotionEvent.ACTION_MOVE, x, HEIGHT/2, 0);
+		}
+
+		events[events.length - 1] = MotionEvent.obtain(downTime, downTime + (events.length - 1)*FRAME_MILLIS,
+				MotionEvent.ACTION_CANCEL, x, HEIGHT/2, 0);
+
+		return events;
+	}
+
+	private void dispatch(long downTime, int action, float x, float y) {
+		MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, x, y, 0);
+
+		mLayout.dispatchTouchEvent(event);
+
+		event.recycle();
+
+		runFrame();
+	}
+
+	private CountingView addSlider(int gravity, int width, int height) {
+		CountingView slider = new CountingView(RuntimeEnvironment.application);
+
+		SliderLayout.LayoutParams params = new SliderLayout.LayoutParams(width, height);
+		params.gravity = gravity;
+
+		mLayout.addView(slider, params);
+
+		return slider;
+	}
+
+	private int runFlyFrames() {
+		int frames = 0;
+
+		while (mListener.lastState==SliderLayout.STATE_FLYING && frames<MAXIMUM_FLY_FRAMES) {
+			int scrollChanges = mListener.scrollChanges;
+
+			runFrame();
+
+			// Every fly frame moves the slider and reports it exactly once.
+			assertEquals(scrollChanges + 1, mListener.scrollChanges);
+
+			frames++;
+		}
+
+		return frames;
+	}
+
+	/*
+	 * Runs the fly frames without drawing, since the shadow canvas allocates for every draw call it records.
+	 */
+	private void idleUntilSettled() {
+		for (int frames=0; mListener.lastState==SliderLayout.STATE_FLYING && frames<MAXIMUM_FLY_FRAMES; frames++) {
+			ShadowLooper.idleMainLooper(FRAME_MILLIS);
+		}
+	}
+
+	private static void runClock(ValueAnimator clock, long duration) {
+		clock.setDuration(duration);
+		clock.start();
+
+		for (int frames=0; clock.isRunning() && frames<MAXIMUM_FLY_FRAMES; frames++) {
+			ShadowLooper.idleMainLooper(FRAME_MILLIS);
+		}
+	}
+
+	private void runFrame() {
+		ShadowLooper.idleMainLooper(FRAME_MILLIS);
+
+		if (mLayout.isLayoutRequested()) {
+			mLayout.measure(mWidthSpec, mHeightSpec);
+			mLayout.layout(0, 0, WIDTH, HEIGHT);
+
+			mLayoutPasses++;
+		}
+
+		mLayout.draw(mCanvas);
+	}
+
+	/*
+	 * The reported ratios in the range only ever move one way, so no move was reported twice.
+	 */
+	private void assertSlidesSteadily(int start, int end) {
+		assertTrue(end<=mListener.ratios.length);
+
+		float direction = Math.signum(mListener.ratios[end - 1] - mListener.ratios[start]);
+
+		assertTrue(direction!=0);
+
+		for (int i=start + 1; i<end; i++) {
+			assertEquals(direction, Math.signum(mListener.ratios[i] - mListener.ratios[i - 1]), 0);
+		}
+	}
+
+	private void resetCounts() {
+		mLayoutPasses = 0;
+
+		mContent.resetCounts();
+		mLeftSlider.resetCounts();
+
+		mListener.reset();
+	}
+
+	private static class RecordingListener implements DetentListener {
+
+		int stateChanges;
+		int scrollChanges;
+		int opens;
+		int closes;
+		int detentChanges;
+
+		int lastState = SliderLayout.STATE_IDLE;
+		int lastDetent;
+
+		/* Allocated up front so recording does not show up in allocation counts. */
+		final float[] ratios = new float[MAXIMUM_FLY_FRAMES*2 + 2];
+
+		void reset() {
+			stateChanges = 0;
+			scrollChanges = 0;
+			opens = 0;
+			closes = 0;
+			detentChanges = 0;
+		}
+
+		@Override
+		public void onStateChanged(int state, int slider) {
+			stateChanges++;
+			lastState = state;
+		}
+
+		@Override
+		public void onScrollChanged(float ratio, int slider) {
+			if (scrollChanges<ratios.length) {
+				ratios[scrollChanges] = ratio;
+			}
+
+			scrollChanges++;
+		}
+
+		@Override
+		public void onSliderOpened(int slider) {
+			opens++;
+		}
+
+		@Override
+		public void onSliderClosed(int slider) {
+			closes++;
+		}
+
+		@Override
+		public void onDetentChanged(int detent, int slider) {
+			detentChanges++;
+			lastDetent = detent;
+		}
+
+	}
+
+}
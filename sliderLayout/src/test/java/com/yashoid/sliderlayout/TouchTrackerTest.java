@@ -0,0 +1,183 @@
+package com.yashoid.sliderlayout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TouchTrackerTest {
+
+	private static final float TOUCH_SLOP = 8;
+
+	private TouchTracker mTracker;
+
+	@Before
+	public void setUp() {
+		mTracker = new TouchTracker(TOUCH_SLOP);
+	}
+
+	@Test
+	public void dragStartsAfterSlop() {
+		mTracker.onDown(0, 100, 100, 0, false);
+
+		mTracker.onMove(108, 100, 16);
+
+		assertFalse(mTracker.isDragging());
+		assertEquals(0, mTracker.consumeDelta(), 0);
+
+		mTracker.onMove(110, 100, 32);
+
+		assertTrue(mTracker.isDragging());
+	}
+
+	@Test
+	public void dragIsCountedFromSlop() {
+		mTracker.onDown(0, 100, 100, 0, false);
+
+		mTracker.onMove(120, 100, 16);
+
+		assertEquals(20 - TOUCH_SLOP, mTracker.consumeDelta(), 0);
+		assertEquals(0, mTracker.consumeDelta(), 0);
+
+		mTracker.onMove(90, 100, 32);
+
+		assertEquals(-30, mTracker.consumeDelta(), 0);
+	}
+
+	@Test
+	public void verticalMovementDoesNotDrag() {
+		mTracker.onDown(0, 100, 100, 0, false);
+
+		mTracker.onMove(112, 140, 16);
+
+		assertFalse(mTracker.isDragging());
+	}
+
+	@Test
+	public void verticalTrackingDragsAlongY() {
+		mTracker.onDown(0, 100, 100, 0, true);
+
+		mTracker.onMove(130, 104, 16);
+
+		assertFalse(mTracker.isDragging());
+
+		mTracker.onMove(104, 80, 32);
+
+		assertTrue(mTracker.isDragging());
+		assertEquals(-20 + TOUCH_SLOP, mTracker.consumeDelta(), 0);
+	}
+
+	@Test
+	public void startDragSkipsSlop() {
+		mTracker.onDown(0, 100, 100, 0, false);
+		mTracker.startDrag();
+
+		mTracker.onMove(102, 100, 16);
+
+		assertTrue(mTracker.isDragging());
+		assertEquals(2, mTracker.consumeDelta(), 0);
+	}
+
+	@Test
+	public void predictionIsTakenBack() {
+		mTracker.onDown(0, 100, 100, 0, false);
+		mTracker.startDrag();
+
+		mTracker.onMove(110, 100, 16);
+
+		assertEquals(15, mTracker.consumeDelta(5), 0);
+
+		mTracker.onMove(112, 100, 32);
+
+		assertEquals(-3, mTracker.consumeDelta(), 0);
+	}
+
+	@Test
+	public void constantMotionGivesItsVelocity() {
+		mTracker.onDown(0, 0, 0, 0, false);
+
+		for (int i=1; i<=10; i++) {
+			mTracker.onMove(i*20, 0, i*16);
+		}
+
+		assertEquals(1250, mTracker.computeVelocity(), 1);
+	}
+
+	@Test
+	public void stoppedPointerHasNoVelocity() {
+		mTracker.onDown(0, 0, 0, 0, false);
+
+		for (int i=1; i<=5; i++) {
+			mTracker.onMove(i*20, 0, i*16);
+		}
+
+		mTracker.onMove(100, 0, 200);
+
+		assertEquals(0, mTracker.computeVelocity(), 0);
+	}
+
+	@Test
+	public void switchingPointersKeepsTheDrag() {
+		mTracker.onDown(0, 100, 100, 0, false);
+		mTracker.startDrag();
+
+		mTracker.onMove(120, 100, 16);
+		mTracker.switchPointer(1, 300, 200);
+
+		assertEquals(1, mTracker.getPointerId());
+		assertEquals(100, mTracker.getDownX(), 0);
+		assertEquals(20, mTracker.consumeDelta(), 0);
+
+		mTracker.onMove(310, 200, 32);
+
+		assertEquals(10, mTracker.consumeDelta(), 0);
+	}
+
+	@Test
+	public void switchingPointersKeepsTheVelocity() {
+		mTracker.onDown(0, 0, 0, 0, false);
+
+		for (int i=1; i<=5; i++) {
+			mTracker.onMove(i*20, 0, i*16);
+		}
+
+		mTracker.switchPointer(1, 500, 0);
+
+		for (int i=6; i<=10; i++) {
+			mTracker.onMove(400 + i*20, 0, i*16);
+		}
+
+		assertEquals(1250, mTracker.computeVelocity(), 1);
+	}
+
+	@Test
+	public void switchingPointersBeforeSlopKeepsTheSlop() {
+		mTracker.onDown(0, 100, 100, 0, false);
+
+		mTracker.onMove(106, 100, 16);
+		mTracker.switchPointer(1, 300, 100);
+		mTracker.onMove(302, 100, 32);
+
+		assertFalse(mTracker.isDragging());
+
+		mTracker.onMove(304, 100, 48);
+
+		assertTrue(mTracker.isDragging());
+	}
+
+	@Test
+	public void resetStopsTracking() {
+		mTracker.onDown(3, 0, 0, 0, false);
+
+		assertTrue(mTracker.isTracking());
+		assertEquals(3, mTracker.getPointerId());
+
+		mTracker.reset();
+
+		assertFalse(mTracker.isTracking());
+		assertEquals(TouchTracker.INVALID_POINTER, mTracker.getPointerId());
+	}
+
+}